@@ -50,6 +50,8 @@ function Home() {
     const [page, setPage] = React.useState(0);
     const [totalPages, setTotalPages] = React.useState(0);
     const [totalElements, setTotalElements] = React.useState(0);
+    const [dataAgeMs, setDataAgeMs] = React.useState(0);
+    const [isStale, setIsStale] = React.useState(false);
     const pageSize = 10;
 
     const loadLegalEntities = React.useCallback(async (pageNum = 0) => {
@@ -75,6 +77,8 @@ function Home() {
                 setPage(data.page);
                 setTotalPages(data.totalPages);
                 setTotalElements(data.totalElements);
+                setDataAgeMs(Number(response.headers.get('X-Data-Age-Ms')) || 0);
+                setIsStale(response.headers.get('X-Data-Stale') === 'true');
             } else {
                 throw new Error('Unexpected response shape');
             }
@@ -107,6 +111,11 @@ function Home() {
                                 <Typography variant="h4" gutterBottom>
                                     Account Holders
                                 </Typography>
+                                {!isMock && dataAgeMs > 60000 && (
+                                    <Typography variant="caption" color="text.secondary">
+                                        Updated {Math.floor(dataAgeMs / 60000)} min ago{isStale ? " (refreshing)" : ""}
+                                    </Typography>
+                                )}
 
                             </Box>
 
@@ -0,0 +1,100 @@
+package com.adyen.benchmark;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.AccountHolderProjection;
+import com.adyen.model.balanceplatform.AccountHolder;
+import com.adyen.model.legalentitymanagement.LegalEntity;
+import com.adyen.service.AccountHolderPageLoader;
+import com.adyen.service.ConfigurationAPIService;
+import com.adyen.service.LegalEntityManagementAPIService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembly of a page of account holders, as returned by /api/accountHolders: loading the account holders and their
+ * legal entities ({@link AccountHolderPageLoader}), building and serializing the response.
+ *
+ * The Adyen API is replaced by in-memory fixtures: the benchmark measures the overhead of the application only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountHolderPageBenchmark {
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AccountHolderPageLoader accountHolderPageLoader;
+    private List<String> accountHolderIds;
+
+    @Setup
+    public void setup() {
+        Map<String, AccountHolder> accountHolders = new HashMap<>();
+        Map<String, LegalEntity> legalEntities = new HashMap<>();
+        accountHolderIds = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            AccountHolder accountHolder = Fixtures.accountHolder(i, 0, 0);
+            accountHolders.put(accountHolder.getId(), accountHolder);
+            legalEntities.put(accountHolder.getLegalEntityId(), Fixtures.legalEntity(i));
+            accountHolderIds.add(accountHolder.getId());
+        }
+
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setAccountHoldersFetchParallelism(8);
+        applicationProperty.setAccountHoldersPageDeadlineMs(10_000);
+
+        accountHolderPageLoader = new AccountHolderPageLoader();
+        accountHolderPageLoader.setApplicationProperty(applicationProperty);
+        accountHolderPageLoader.setConfigurationAPIService(new ConfigurationAPIService() {
+            @Override
+            public Optional<AccountHolder> getAccountHolder(String accountHolderId) {
+                return Optional.ofNullable(accountHolders.get(accountHolderId));
+            }
+        });
+        accountHolderPageLoader.setLegalEntityManagementAPIService(new LegalEntityManagementAPIService() {
+            @Override
+            public LegalEntity get(String id) {
+                return legalEntities.get(id);
+            }
+        });
+        accountHolderPageLoader.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        accountHolderPageLoader.shutdown();
+    }
+
+    @Benchmark
+    public List<AccountHolderProjection> load() {
+        return accountHolderPageLoader.load(accountHolderIds);
+    }
+
+    @Benchmark
+    public byte[] loadAndSerialize() throws Exception {
+        List<AccountHolderProjection> content = accountHolderPageLoader.load(accountHolderIds);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("page", 0);
+        response.put("size", pageSize);
+        response.put("totalElements", pageSize);
+        response.put("totalPages", 1);
+        response.put("first", true);
+        response.put("last", true);
+        response.put("nextCursor", null);
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
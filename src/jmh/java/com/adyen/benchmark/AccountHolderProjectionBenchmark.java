@@ -0,0 +1,97 @@
+package com.adyen.benchmark;
+
+import com.adyen.model.AccountHolderProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account holder rows: {@link AccountHolderProjection} vs the generic map previously cached and serialized.
+ *
+ * Serialization cost is measured by JMH, retained memory per entry (measured with JOL) is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountHolderProjectionBenchmark {
+
+    private static final String[] STATUSES = {"active", "inactive", "suspended"};
+    private static final String[] TYPES = {"individual", "organization", "soleProprietorship"};
+    private static final String[] COUNTRIES = {"NL", "US", "GB", "FR", "DE"};
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<Map<String, Object>> maps;
+    private List<AccountHolderProjection> projections;
+
+    @Setup
+    public void setup() {
+        maps = new ArrayList<>(pageSize);
+        projections = new ArrayList<>(pageSize);
+
+        for (int i = 0; i < pageSize; i++) {
+            String id = "AH" + String.format("%022d", i);
+            // new String instances, as deserialized from separate API responses
+            String status = new String(STATUSES[i % STATUSES.length]);
+            String type = new String(TYPES[i % TYPES.length]);
+            String country = new String(COUNTRIES[i % COUNTRIES.length]);
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", id);
+            map.put("accountHolderId", id);
+            map.put("reference", "YOUR_REFERENCE-" + i);
+            map.put("description", "Account holder " + i);
+            map.put("status", status);
+            map.put("legalEntityId", "LE" + String.format("%022d", i));
+            map.put("legalName", "Legal name " + i);
+            map.put("type", type);
+            map.put("country", country);
+            maps.add(map);
+
+            projections.add(new AccountHolderProjection(id, "YOUR_REFERENCE-" + i, "Account holder " + i,
+                    new String(status), "LE" + String.format("%022d", i), "Legal name " + i,
+                    new String(type), new String(country)));
+        }
+
+        System.out.printf("%nRetained bytes per entry (page size %d): map=%d, projection=%d%n", pageSize,
+                GraphLayout.parseInstance(maps.toArray()).totalSize() / pageSize,
+                GraphLayout.parseInstance(projections.toArray()).totalSize() / pageSize);
+    }
+
+    @Benchmark
+    public byte[] serializeMaps() throws Exception {
+        return objectMapper.writeValueAsBytes(maps);
+    }
+
+    @Benchmark
+    public byte[] serializeProjections() throws Exception {
+        return objectMapper.writeValueAsBytes(projections);
+    }
+
+    @Benchmark
+    public void buildMaps(Blackhole blackhole) {
+        for (Map<String, Object> map : maps) {
+            blackhole.consume(new HashMap<>(map));
+        }
+    }
+
+    @Benchmark
+    public void buildProjections(Blackhole blackhole) {
+        for (AccountHolderProjection projection : projections) {
+            blackhole.consume(projection.withAccountHolderDetails(projection.getStatus(), null, null));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.adyen.benchmark;
+
+import com.adyen.model.AccountHolderStatus;
+import com.adyen.model.balanceplatform.AccountHolder;
+import com.adyen.service.ConfigurationAPIService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status of an account holder from its capabilities ({@link ConfigurationAPIService#getAccountHolderStatus(AccountHolder)})
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountHolderStatusBenchmark {
+
+    private final ConfigurationAPIService configurationAPIService = new ConfigurationAPIService();
+
+    private AccountHolder valid;
+    private AccountHolder pending;
+    private AccountHolder invalid;
+
+    @Setup
+    public void setup() {
+        valid = Fixtures.accountHolder(1, 0, 0);
+        pending = Fixtures.accountHolder(2, 2, 0);
+        invalid = Fixtures.accountHolder(3, 1, 1);
+    }
+
+    @Benchmark
+    public AccountHolderStatus valid() {
+        return configurationAPIService.getAccountHolderStatus(valid);
+    }
+
+    @Benchmark
+    public AccountHolderStatus pending() {
+        return configurationAPIService.getAccountHolderStatus(pending);
+    }
+
+    @Benchmark
+    public AccountHolderStatus invalid() {
+        return configurationAPIService.getAccountHolderStatus(invalid);
+    }
+}
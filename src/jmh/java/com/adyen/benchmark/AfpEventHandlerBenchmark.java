@@ -0,0 +1,32 @@
+package com.adyen.benchmark;
+
+import com.adyen.util.AfpEventHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the type of a webhook event ({@link AfpEventHandler#getEventType(String)})
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AfpEventHandlerBenchmark {
+
+    private final AfpEventHandler afpEventHandler = new AfpEventHandler();
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.accountHolderUpdatedWebhook(1);
+    }
+
+    @Benchmark
+    public String getEventType() throws Exception {
+        return afpEventHandler.getEventType(json);
+    }
+}
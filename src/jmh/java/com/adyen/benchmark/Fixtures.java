@@ -0,0 +1,115 @@
+package com.adyen.benchmark;
+
+import com.adyen.model.balanceplatform.AccountHolder;
+import com.adyen.model.balanceplatform.AccountHolderCapability;
+import com.adyen.model.legalentitymanagement.Address;
+import com.adyen.model.legalentitymanagement.Individual;
+import com.adyen.model.legalentitymanagement.LegalEntity;
+import com.adyen.model.legalentitymanagement.Name;
+import com.adyen.model.legalentitymanagement.Organization;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Synthetic Adyen model objects for the benchmarks, shaped like the Test environment responses
+ */
+final class Fixtures {
+
+    // capabilities requested by the onboarding of the sample
+    static final String[] CAPABILITIES = {"receiveFromPlatformPayments", "receiveFromBalanceAccount", "sendToBalanceAccount",
+            "sendToTransferInstrument", "receivePayments", "issueCardConsumer", "useCardInRestrictedIndustries",
+            "withdrawFromAtmInRestrictedCountries"};
+
+    private static final String[] COUNTRIES = {"NL", "US", "GB", "FR", "DE"};
+
+    private Fixtures() {
+    }
+
+    static String accountHolderId(int i) {
+        return "AH" + String.format("%022d", i);
+    }
+
+    static String legalEntityId(int i) {
+        return "LE" + String.format("%022d", i);
+    }
+
+    /**
+     * Account holder with all capabilities valid, except the given number of pending and invalid ones
+     * @param i
+     * @param pending
+     * @param invalid
+     * @return
+     */
+    static AccountHolder accountHolder(int i, int pending, int invalid) {
+        Map<String, AccountHolderCapability> capabilities = new LinkedHashMap<>();
+        for (int c = 0; c < CAPABILITIES.length; c++) {
+            AccountHolderCapability.VerificationStatusEnum verificationStatus =
+                    c < invalid ? AccountHolderCapability.VerificationStatusEnum.INVALID :
+                            c < invalid + pending ? AccountHolderCapability.VerificationStatusEnum.PENDING :
+                                    AccountHolderCapability.VerificationStatusEnum.VALID;
+            capabilities.put(CAPABILITIES[c], new AccountHolderCapability().verificationStatus(verificationStatus));
+        }
+
+        return new AccountHolder()
+                .id(accountHolderId(i))
+                .reference("YOUR_REFERENCE-" + i)
+                .description("Account holder " + i)
+                .status(AccountHolder.StatusEnum.ACTIVE)
+                .legalEntityId(legalEntityId(i))
+                .balancePlatform("YOUR_BALANCE_PLATFORM")
+                .primaryBalanceAccount("BA" + String.format("%022d", i))
+                .capabilities(capabilities);
+    }
+
+    static LegalEntity individual(int i) {
+        return new LegalEntity()
+                .id(legalEntityId(i))
+                .type(LegalEntity.TypeEnum.INDIVIDUAL)
+                .individual(new Individual()
+                        .name(new Name().firstName("First" + i).lastName("Last" + i))
+                        .residentialAddress(address(i)));
+    }
+
+    static LegalEntity organization(int i) {
+        return new LegalEntity()
+                .id(legalEntityId(i))
+                .type(LegalEntity.TypeEnum.ORGANIZATION)
+                .organization(new Organization()
+                        .legalName("Organization " + i + " B.V.")
+                        .registeredAddress(address(i)));
+    }
+
+    static LegalEntity legalEntity(int i) {
+        return i % 2 == 0 ? individual(i) : organization(i);
+    }
+
+    private static Address address(int i) {
+        return new Address()
+                .street("Simon Carmiggeltstraat " + (i % 100 + 1))
+                .city("Amsterdam")
+                .postalCode("1011 DJ")
+                .country(COUNTRIES[i % COUNTRIES.length]);
+    }
+
+    /**
+     * Configuration webhook notifying an account holder update
+     * @param i
+     * @return
+     */
+    static String accountHolderUpdatedWebhook(int i) {
+        StringBuilder capabilities = new StringBuilder();
+        for (int c = 0; c < CAPABILITIES.length; c++) {
+            capabilities.append(c > 0 ? "," : "")
+                    .append('"').append(CAPABILITIES[c]).append("\":{\"allowed\":true,\"enabled\":true,")
+                    .append("\"requested\":true,\"verificationStatus\":\"valid\",\"problems\":[]}");
+        }
+
+        return "{\"data\":{\"balancePlatform\":\"YOUR_BALANCE_PLATFORM\",\"accountHolder\":{"
+                + "\"id\":\"" + accountHolderId(i) + "\",\"legalEntityId\":\"" + legalEntityId(i) + "\","
+                + "\"reference\":\"YOUR_REFERENCE-" + i + "\",\"description\":\"Account holder " + i + "\","
+                + "\"status\":\"active\",\"capabilities\":{" + capabilities + "}}},"
+                + "\"environment\":\"test\",\"timestamp\":\"2024-05-31T12:00:00+02:00\","
+                + "\"type\":\"balancePlatform.accountHolder.updated\"}";
+    }
+}
@@ -0,0 +1,41 @@
+package com.adyen.benchmark;
+
+import com.adyen.model.User;
+import com.adyen.model.legalentitymanagement.LegalEntity;
+import com.adyen.util.LegalEntityHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User of the dashboard from its legal entity ({@link LegalEntityHandler#getUserFromLegalEntity(LegalEntity)})
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegalEntityHandlerBenchmark {
+
+    private final LegalEntityHandler legalEntityHandler = new LegalEntityHandler();
+
+    private LegalEntity individual;
+    private LegalEntity organization;
+
+    @Setup
+    public void setup() {
+        individual = Fixtures.individual(1);
+        organization = Fixtures.organization(2);
+    }
+
+    @Benchmark
+    public User individual() {
+        return legalEntityHandler.getUserFromLegalEntity(individual);
+    }
+
+    @Benchmark
+    public User organization() {
+        return legalEntityHandler.getUserFromLegalEntity(organization);
+    }
+}
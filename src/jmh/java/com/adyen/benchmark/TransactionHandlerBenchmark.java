@@ -0,0 +1,80 @@
+package com.adyen.benchmark;
+
+import com.adyen.model.TransactionItem;
+import com.adyen.model.transfers.Amount;
+import com.adyen.model.transfers.Transaction;
+import com.adyen.util.TransactionHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.NumberFormat;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of Transactions into TransactionItems: {@link TransactionHandler} (sequential and parallel)
+ * vs the previous conversion, creating the formatters for every transaction.
+ *
+ * Run with the GC profiler to compare the allocation rate (gc.alloc.rate.norm: bytes allocated per operation):
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="TransactionHandlerBenchmark -prof gc -rf json -rff target/jmh-result.json"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionHandlerBenchmark {
+
+    private static final String[] CURRENCIES = {"EUR", "USD", "GBP"};
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final TransactionHandler transactionHandler = new TransactionHandler();
+
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setup() {
+        transactions = new ArrayList<>(size);
+        OffsetDateTime created = OffsetDateTime.of(2024, 5, 31, 12, 0, 0, 0, ZoneOffset.UTC);
+
+        for (int i = 0; i < size; i++) {
+            long value = (i % 2 == 0 ? 1 : -1) * (1000L + i * 37L);
+            transactions.add(new Transaction()
+                    .id("EVJN" + String.format("%024d", i))
+                    .status(i % 10 == 0 ? Transaction.StatusEnum.PENDING : Transaction.StatusEnum.BOOKED)
+                    .amount(new Amount().currency(CURRENCIES[i % CURRENCIES.length]).value(value))
+                    .creationDate(created.minusMinutes(i)));
+        }
+    }
+
+    @Benchmark
+    public List<TransactionItem> previous() {
+        List<TransactionItem> transactionItems = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            Amount amount = transaction.getAmount();
+            transactionItems.add(new TransactionItem()
+                    .id(transaction.getId())
+                    .status(transaction.getStatus().getValue())
+                    .type(amount.getValue() > 0 ? "Incoming" : "Outgoing")
+                    .created(transaction.getCreationDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+                    .amount(amount.getCurrency() + " " + NumberFormat.getNumberInstance().format(Math.abs(amount.getValue()))));
+        }
+        return transactionItems;
+    }
+
+    @Benchmark
+    public List<TransactionItem> sequential() {
+        return transactionHandler.getTransactionItems(transactions, false);
+    }
+
+    @Benchmark
+    public List<TransactionItem> parallel() {
+        return transactionHandler.getTransactionItems(transactions, true);
+    }
+}
@@ -0,0 +1,53 @@
+package com.adyen.benchmark;
+
+import com.adyen.model.configurationwebhooks.AccountHolderNotificationRequest;
+import com.adyen.notification.BankingWebhookHandler;
+import com.adyen.util.AfpEventHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook events parsed per second: single pass over the raw bytes ({@link AfpEventHandler#getEvent(byte[])} then binding
+ * of the notification with the shared mapper) vs the previous path (body as a String, type and environment each read
+ * with a new ObjectMapper and a tree, then the notification parsed again by BankingWebhookHandler).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookParsingBenchmark {
+
+    private final AfpEventHandler afpEventHandler = new AfpEventHandler();
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        payload = Fixtures.accountHolderUpdatedWebhook(1).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void previous(Blackhole blackhole) throws Exception {
+        String json = new String(payload, StandardCharsets.UTF_8);
+
+        JsonNode type = new ObjectMapper().readTree(json).get("type");
+        JsonNode environment = new ObjectMapper().readTree(json).get("environment");
+        blackhole.consume(type != null ? type.asText() : null);
+        blackhole.consume(environment != null ? environment.asText() : null);
+        blackhole.consume(new BankingWebhookHandler(json).getAccountHolderNotificationRequest());
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) throws Exception {
+        AfpEventHandler.Event event = afpEventHandler.getEvent(payload);
+        blackhole.consume(event);
+        blackhole.consume(afpEventHandler.read(payload, AccountHolderNotificationRequest.class));
+    }
+}
@@ -0,0 +1,68 @@
+package com.adyen.benchmark;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.util.HMACValidator;
+import com.adyen.util.WebhookSignatureValidator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC signatures validated per second, from 8 threads (burst of webhook requests): {@link WebhookSignatureValidator}
+ * (per-thread Mac over the raw bytes) vs {@link HMACValidator} (body decoded to a String, new Mac for every event).
+ * With two keys (rotation) the signature is made with the second key: both Macs are computed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class WebhookSignatureBenchmark {
+
+    private static final String KEY = "44782DEF547AAA06C910C43932B1EB0C71FC68D9D0C057550C48EC2ACF6BA056";
+    private static final String PREVIOUS_KEY = "0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF";
+
+    @Param({"1", "2"})
+    private int keyCount;
+
+    private final HMACValidator hmacValidator = new HMACValidator();
+    private final WebhookSignatureValidator webhookSignatureValidator = new WebhookSignatureValidator();
+
+    private byte[] payload;
+    private String signature;
+
+    @Setup
+    public void setup() throws Exception {
+        payload = Fixtures.accountHolderUpdatedWebhook(1).getBytes(StandardCharsets.UTF_8);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(HexFormat.of().parseHex(KEY), "HmacSHA256"));
+        signature = Base64.getEncoder().encodeToString(mac.doFinal(payload));
+
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setHmacKey(keyCount == 1 ? KEY : PREVIOUS_KEY + "," + KEY);
+        webhookSignatureValidator.setApplicationProperty(applicationProperty);
+        webhookSignatureValidator.init();
+        if (!webhookSignatureValidator.isValid(payload, signature)) {
+            throw new IllegalStateException("Invalid signature");
+        }
+    }
+
+    @Benchmark
+    public boolean previous() throws Exception {
+        // the previous validation only knew one key
+        return hmacValidator.validateHMAC(new String(payload, StandardCharsets.UTF_8), signature, KEY);
+    }
+
+    @Benchmark
+    public boolean perThreadMac() {
+        return webhookSignatureValidator.isValid(payload, signature);
+    }
+}
@@ -0,0 +1,205 @@
+package com.adyen.cache;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.AccountHolderProjection;
+import com.adyen.model.TransactionItem;
+import com.adyen.model.balanceplatform.PaginatedPaymentInstrumentsResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches shared by the account holder endpoints:
+ * - account holder projections (by account holder id)
+ * - pages of account holders (ids included in the page, by page key)
+ * - transactions (by account holder id)
+ * - payment instruments (by balance account id)
+ *
+ * Each cache is bounded by its approximate size in bytes.
+ * Account holder projections are also added to the {@link AccountHolderIndex} (filter, sort and facets), and removed
+ * from it when evicted from the cache.
+ * Entries are patched or evicted when the matching webhook events are received.
+ *
+ * Entries older than the cache TTL are stale: when stale-while-revalidate is enabled they are kept
+ * (and can be served while being refreshed) until the hard expiry, otherwise they expire after the TTL
+ */
+@Service
+public class AccountHolderCache {
+
+    // rough per-object overhead (header, references) used when estimating sizes
+    private static final int OBJECT_OVERHEAD = 48;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private AccountHolderIndex accountHolderIndex;
+
+    private BoundedCache<String, AccountHolderProjection> accountHolders;
+    private BoundedCache<String, List<String>> pages;
+    private BoundedCache<String, List<TransactionItem>> transactions;
+    private BoundedCache<String, PaginatedPaymentInstrumentsResponse> paymentInstruments;
+
+    @PostConstruct
+    public void init() {
+        Duration ttl = Duration.ofMillis(getApplicationProperty().isCacheStaleWhileRevalidate() ?
+                Math.max(getApplicationProperty().getCacheHardExpiryMs(), getApplicationProperty().getCacheTtlMs()) :
+                getApplicationProperty().getCacheTtlMs());
+
+        // evicted projections leave the index too: the index stays within ACCOUNT_HOLDERS_CACHE_MAX_BYTES
+        accountHolders = new BoundedCache<>("accountHolders",
+                getApplicationProperty().getAccountHoldersCacheMaxBytes(), ttl, AccountHolderProjection::estimateSize,
+                (accountHolderId, accountHolder) -> getAccountHolderIndex().remove(accountHolderId, accountHolder));
+        pages = new BoundedCache<>("accountHolderPages",
+                getApplicationProperty().getAccountHoldersCacheMaxBytes() / 16, ttl, AccountHolderCache::weighStrings);
+        transactions = new BoundedCache<>("transactions",
+                getApplicationProperty().getTransactionsCacheMaxBytes(), ttl, AccountHolderCache::weighTransactions);
+        paymentInstruments = new BoundedCache<>("paymentInstruments",
+                getApplicationProperty().getAccountHoldersCacheMaxBytes() / 4, ttl, AccountHolderCache::weighPaymentInstruments);
+    }
+
+    public BoundedCache<String, AccountHolderProjection> getAccountHolders() {
+        return accountHolders;
+    }
+
+    /**
+     * Cache the account holder projection and add it to the index
+     * @param accountHolder
+     */
+    public void putAccountHolder(AccountHolderProjection accountHolder) {
+        accountHolders.put(accountHolder.getAccountHolderId(), accountHolder);
+        getAccountHolderIndex().put(accountHolder);
+    }
+
+    /**
+     * Restore the account holder projection stored at the given time (see {@link BoundedCache#restore}) and add it to the index
+     * @param accountHolder
+     * @param createdAt
+     * @return true when restored, false when expired (not cached, not indexed)
+     */
+    public boolean restoreAccountHolder(AccountHolderProjection accountHolder, long createdAt) {
+        if (!accountHolders.restore(accountHolder.getAccountHolderId(), accountHolder, createdAt)) {
+            return false;
+        }
+        getAccountHolderIndex().put(accountHolder);
+        return true;
+    }
+
+    public BoundedCache<String, List<String>> getPages() {
+        return pages;
+    }
+
+    public BoundedCache<String, List<TransactionItem>> getTransactions() {
+        return transactions;
+    }
+
+    public BoundedCache<String, PaginatedPaymentInstrumentsResponse> getPaymentInstruments() {
+        return paymentInstruments;
+    }
+
+    /**
+     * Patch the cached account holder projection with the data received in the webhook event
+     * (status, description, reference). The projection is evicted when its legal entity has changed
+     * @param accountHolder
+     */
+    public void onAccountHolderUpdated(com.adyen.model.configurationwebhooks.AccountHolder accountHolder) {
+        if (accountHolder == null || accountHolder.getId() == null) {
+            return;
+        }
+
+        accountHolders.get(accountHolder.getId()).ifPresent(cached -> {
+            if (accountHolder.getLegalEntityId() != null && !accountHolder.getLegalEntityId().equals(cached.getLegalEntityId())) {
+                accountHolders.invalidate(accountHolder.getId());
+                getAccountHolderIndex().remove(accountHolder.getId());
+                return;
+            }
+
+            putAccountHolder(cached.withAccountHolderDetails(
+                    accountHolder.getStatus() != null ? accountHolder.getStatus().getValue() : null,
+                    accountHolder.getDescription(),
+                    accountHolder.getReference()));
+        });
+    }
+
+    /**
+     * Evict the cached payment instruments of the balance account
+     * @param balanceAccountId
+     */
+    public void evictPaymentInstruments(String balanceAccountId) {
+        if (balanceAccountId != null) {
+            paymentInstruments.invalidate(balanceAccountId);
+        }
+    }
+
+    /**
+     * Whether the entry is younger than the cache TTL
+     * @param entry
+     * @return
+     */
+    public boolean isFresh(BoundedCache.CacheEntry<?> entry) {
+        return entry.getAgeMs() < getApplicationProperty().getCacheTtlMs();
+    }
+
+    /**
+     * Whether a stale entry can be served while it is refreshed in the background
+     * @return
+     */
+    public boolean isStaleWhileRevalidate() {
+        return getApplicationProperty().isCacheStaleWhileRevalidate();
+    }
+
+    /**
+     * Stats of all caches
+     * @return
+     */
+    public List<Map<String, Object>> getStats() {
+        return List.of(accountHolders.getStats(), pages.getStats(), transactions.getStats(), paymentInstruments.getStats());
+    }
+
+    static int weighStrings(List<String> values) {
+        int weight = OBJECT_OVERHEAD;
+        for (String value : values) {
+            weight += weighString(value);
+        }
+        return weight;
+    }
+
+    static int weighTransactions(List<TransactionItem> transactionItems) {
+        int weight = OBJECT_OVERHEAD;
+        for (TransactionItem item : transactionItems) {
+            weight += OBJECT_OVERHEAD + weighString(item.getId()) + weighString(item.getStatus())
+                    + weighString(item.getType()) + weighString(item.getCreated()) + weighString(item.getAmount());
+        }
+        return weight;
+    }
+
+    static int weighPaymentInstruments(PaginatedPaymentInstrumentsResponse response) {
+        int count = response.getPaymentInstruments() != null ? response.getPaymentInstruments().size() : 0;
+        // payment instruments are nested objects: use a flat estimate per instrument
+        return OBJECT_OVERHEAD + count * 16 * OBJECT_OVERHEAD;
+    }
+
+    private static int weighString(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD + value.length();
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+
+    public AccountHolderIndex getAccountHolderIndex() {
+        return accountHolderIndex;
+    }
+
+    public void setAccountHolderIndex(AccountHolderIndex accountHolderIndex) {
+        this.accountHolderIndex = accountHolderIndex;
+    }
+}
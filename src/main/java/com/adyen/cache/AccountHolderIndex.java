@@ -0,0 +1,334 @@
+package com.adyen.cache;
+
+import com.adyen.model.AccountHolderProjection;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory secondary indexes over the account holder projections, to filter, sort and count account holders
+ * without calling the Adyen API.
+ *
+ * Each account holder gets an ordinal while it is indexed: the lowest ordinal freed by a removal, or the next one.
+ * The ordinals stay as many as the indexed account holders at their peak. Every value of status, type
+ * and country has a bitmap of the matching ordinals, so a filter is a few bitwise operations over the bitmaps.
+ * Ordinals sorted by legal name are rebuilt lazily, on the first sorted query after a change.
+ *
+ * The index holds the projections of the account holder cache: projections evicted from the cache are removed
+ * (see {@link AccountHolderCache}), so the index is bounded by ACCOUNT_HOLDERS_CACHE_MAX_BYTES too.
+ */
+@Service
+public class AccountHolderIndex {
+
+    public static final String STATUS = "status";
+    public static final String TYPE = "type";
+    public static final String COUNTRY = "country";
+    public static final String LEGAL_NAME = "legalName";
+
+    private static final Comparator<AccountHolderProjection> BY_LEGAL_NAME =
+            Comparator.comparing(AccountHolderProjection::getLegalName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(AccountHolderProjection::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<AccountHolderProjection> projections = new ArrayList<>();
+    private final BitSet present = new BitSet();
+    private final Map<String, Facet> facets = new LinkedHashMap<>();
+
+    private int[] sortedByLegalName = new int[0];
+    private boolean sortedDirty = false;
+
+    public AccountHolderIndex() {
+        facets.put(STATUS, new Facet(AccountHolderProjection::getStatus));
+        facets.put(TYPE, new Facet(AccountHolderProjection::getType));
+        facets.put(COUNTRY, new Facet(AccountHolderProjection::getCountry));
+    }
+
+    /**
+     * Add or replace the account holder in the index
+     * @param accountHolder
+     */
+    public void put(AccountHolderProjection accountHolder) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(accountHolder.getId());
+            int ordinal;
+            if (existing == null) {
+                // reuse the ordinal of a removed account holder
+                ordinal = present.nextClearBit(0);
+                ordinals.put(accountHolder.getId(), ordinal);
+                if (ordinal < projections.size()) {
+                    projections.set(ordinal, accountHolder);
+                } else {
+                    projections.add(accountHolder);
+                }
+            } else {
+                ordinal = existing;
+                AccountHolderProjection previous = projections.get(ordinal);
+                if (previous != null) {
+                    for (Facet facet : facets.values()) {
+                        facet.remove(previous, ordinal);
+                    }
+                    if (!Objects.equals(previous.getLegalName(), accountHolder.getLegalName())) {
+                        sortedDirty = true;
+                    }
+                }
+                projections.set(ordinal, accountHolder);
+            }
+
+            if (!present.get(ordinal)) {
+                present.set(ordinal);
+                sortedDirty = true;
+            }
+            for (Facet facet : facets.values()) {
+                facet.add(accountHolder, ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the account holder from the index (its ordinal is freed for the next account holder)
+     * @param accountHolderId
+     */
+    public void remove(String accountHolderId) {
+        remove(accountHolderId, null);
+    }
+
+    /**
+     * Remove the account holder from the index if the given projection is still the indexed one
+     * (ie evicted from the cache, unless it has been replaced meanwhile)
+     * @param accountHolderId
+     * @param accountHolder projection to remove, or null for any
+     */
+    public void remove(String accountHolderId, AccountHolderProjection accountHolder) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(accountHolderId);
+            if (ordinal == null) {
+                return;
+            }
+            AccountHolderProjection previous = projections.get(ordinal);
+            if (accountHolder != null && previous != accountHolder) {
+                return;
+            }
+            facets.values().forEach(facet -> facet.remove(previous, ordinal));
+            projections.set(ordinal, null);
+            ordinals.remove(accountHolderId);
+            present.clear(ordinal);
+            sortedDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed account holders
+     * @return
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return present.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter, sort and page the indexed account holders
+     * @param filters    accepted values by facet (status, type, country): values of a facet are OR-ed, facets are AND-ed
+     * @param sort       field to sort by (legalName), or null to keep the index order
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the page of matching account holders, the total number of matches and the facet counts
+     */
+    public QueryResult query(Map<String, Collection<String>> filters, String sort, boolean descending, int offset, int limit) {
+        if (sort != null && !LEGAL_NAME.equals(sort)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort);
+        }
+        for (String field : filters.keySet()) {
+            if (!facets.containsKey(field)) {
+                throw new IllegalArgumentException("Unsupported filter: " + field);
+            }
+        }
+
+        lock.readLock().lock();
+        if (sort != null && sortedDirty) {
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                rebuildSortedIfDirty();
+                // downgrade to the read lock: no put or remove between the rebuild and the query
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        try {
+            BitSet matches = match(filters, null);
+            int total = matches.cardinality();
+
+            List<AccountHolderProjection> content = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+            if (sort == null) {
+                collect(matches, descending, offset, limit, content);
+            } else {
+                collectSorted(matches, descending, offset, limit, content);
+            }
+
+            // counts of each facet value, applying the filters of the other facets only
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, Facet> facet : facets.entrySet()) {
+                BitSet base = filters.containsKey(facet.getKey()) ? match(filters, facet.getKey()) : matches;
+                counts.put(facet.getKey(), facet.getValue().count(base));
+            }
+
+            return new QueryResult(content, total, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet match(Map<String, Collection<String>> filters, String excludedField) {
+        BitSet matches = (BitSet) present.clone();
+        for (Map.Entry<String, Collection<String>> filter : filters.entrySet()) {
+            if (filter.getKey().equals(excludedField) || filter.getValue() == null || filter.getValue().isEmpty()) {
+                continue;
+            }
+            matches.and(facets.get(filter.getKey()).union(filter.getValue()));
+        }
+        return matches;
+    }
+
+    private void collect(BitSet matches, boolean descending, int offset, int limit, List<AccountHolderProjection> content) {
+        int skipped = 0;
+        int ordinal = descending ? matches.previousSetBit(matches.length() - 1) : matches.nextSetBit(0);
+        while (ordinal >= 0 && content.size() < limit) {
+            if (skipped++ >= offset) {
+                content.add(projections.get(ordinal));
+            }
+            ordinal = descending ? matches.previousSetBit(ordinal - 1) : matches.nextSetBit(ordinal + 1);
+        }
+    }
+
+    private void collectSorted(BitSet matches, boolean descending, int offset, int limit, List<AccountHolderProjection> content) {
+        int skipped = 0;
+        for (int i = 0; i < sortedByLegalName.length && content.size() < limit; i++) {
+            int ordinal = sortedByLegalName[descending ? sortedByLegalName.length - 1 - i : i];
+            if (matches.get(ordinal) && skipped++ >= offset) {
+                content.add(projections.get(ordinal));
+            }
+        }
+    }
+
+    // called with the write lock held
+    private void rebuildSortedIfDirty() {
+        if (!sortedDirty) {
+            return;
+        }
+        int[] sorted = present.stream().toArray();
+        mergeSort(sorted, new int[sorted.length], 0, sorted.length);
+        sortedByLegalName = sorted;
+        sortedDirty = false;
+    }
+
+    // stable sort of the ordinals by legal name, on the primitive array (no boxing)
+    private void mergeSort(int[] ordinals, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(ordinals, buffer, from, middle);
+        mergeSort(ordinals, buffer, middle, to);
+        if (compareByLegalName(ordinals[middle - 1], ordinals[middle]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(ordinals, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compareByLegalName(buffer[left], buffer[right]) <= 0)) {
+                ordinals[i] = buffer[left++];
+            } else {
+                ordinals[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compareByLegalName(int a, int b) {
+        return BY_LEGAL_NAME.compare(projections.get(a), projections.get(b));
+    }
+
+    /**
+     * Bitmaps of the ordinals by value of a field
+     */
+    private static class Facet {
+
+        private final Function<AccountHolderProjection, String> field;
+        private final Map<String, BitSet> bitmaps = new TreeMap<>();
+
+        Facet(Function<AccountHolderProjection, String> field) {
+            this.field = field;
+        }
+
+        void add(AccountHolderProjection accountHolder, int ordinal) {
+            String value = field.apply(accountHolder);
+            if (value != null) {
+                bitmaps.computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+            }
+        }
+
+        void remove(AccountHolderProjection accountHolder, int ordinal) {
+            String value = field.apply(accountHolder);
+            BitSet bitmap = value != null ? bitmaps.get(value) : null;
+            if (bitmap != null) {
+                bitmap.clear(ordinal);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(value);
+                }
+            }
+        }
+
+        BitSet union(Collection<String> values) {
+            BitSet union = new BitSet();
+            for (String value : values) {
+                BitSet bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    union.or(bitmap);
+                }
+            }
+            return union;
+        }
+
+        Map<String, Integer> count(BitSet base) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, BitSet> bitmap : bitmaps.entrySet()) {
+                BitSet matching = (BitSet) bitmap.getValue().clone();
+                matching.and(base);
+                int count = matching.cardinality();
+                if (count > 0) {
+                    counts.put(bitmap.getKey(), count);
+                }
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Page of matching account holders
+     * @param content    account holders in the page
+     * @param totalElements number of matching account holders
+     * @param facets     number of matching account holders by facet value
+     */
+    public record QueryResult(List<AccountHolderProjection> content, int totalElements,
+                              Map<String, Map<String, Integer>> facets) {
+    }
+}
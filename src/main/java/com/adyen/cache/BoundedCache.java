@@ -0,0 +1,216 @@
+package com.adyen.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory cache bounded by weight, with a TTL per entry.
+ *
+ * Backed by Caffeine, which evicts using W-TinyLFU (frequency-aware admission in front of an LRU window),
+ * so a burst of one-off keys does not push out the frequently read entries.
+ * Hit, miss and eviction counters are recorded and exposed via {@link #getStats()}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final Duration defaultTtl;
+    private final ToIntFunction<V> weigher;
+    private final Cache<K, CacheEntry<V>> cache;
+
+    /**
+     * @param name       name of the cache (used in stats)
+     * @param maxWeight  max total weight of the entries
+     * @param defaultTtl time-to-live of the entries, when not specified on put
+     * @param weigher    weight of a single value (ie approximate size in bytes)
+     */
+    public BoundedCache(String name, long maxWeight, Duration defaultTtl, ToIntFunction<V> weigher) {
+        this(name, maxWeight, defaultTtl, weigher, null);
+    }
+
+    /**
+     * @param name       name of the cache (used in stats)
+     * @param maxWeight  max total weight of the entries
+     * @param defaultTtl time-to-live of the entries, when not specified on put
+     * @param weigher    weight of a single value (ie approximate size in bytes)
+     * @param evictionListener called with the key and value of each entry evicted (size or expiry, not
+     *                         {@link #invalidate} nor replaced), or null
+     */
+    public BoundedCache(String name, long maxWeight, Duration defaultTtl, ToIntFunction<V> weigher,
+                        BiConsumer<K, V> evictionListener) {
+        this.name = name;
+        this.defaultTtl = defaultTtl;
+        this.weigher = weigher;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((K key, CacheEntry<V> entry) -> entry.weight())
+                .expireAfter(new Expiry<K, CacheEntry<V>>() {
+                    @Override
+                    public long expireAfterCreate(K key, CacheEntry<V> entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(K key, CacheEntry<V> entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(K key, CacheEntry<V> entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((K key, CacheEntry<V> entry, RemovalCause cause) -> {
+                    if (evictionListener != null && key != null && entry != null) {
+                        evictionListener.accept(key, entry.value());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the value if present and not expired
+     * @param key
+     * @return
+     */
+    public Optional<V> get(K key) {
+        return getEntry(key).map(CacheEntry::value);
+    }
+
+    /**
+     * Get the entry (value and time it was stored) if present and not expired
+     * @param key
+     * @return
+     */
+    public Optional<CacheEntry<V>> getEntry(K key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    /**
+     * Get the value, or create and cache it when missing (atomically: concurrent callers get the same value)
+     * @param key
+     * @param factory
+     * @return
+     */
+    public V get(K key, Function<K, V> factory) {
+        return cache.get(key, k -> newEntry(factory.apply(k), defaultTtl)).value();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtl);
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        cache.put(key, newEntry(value, ttl));
+    }
+
+    /**
+     * Weigh again a value that has changed (ie grown) and restart its TTL, if it is still the cached value
+     * (an evicted value is not added back)
+     * @param key
+     * @param value
+     */
+    public void refresh(K key, V value) {
+        cache.asMap().computeIfPresent(key, (k, entry) -> entry.value() == value ? newEntry(value, defaultTtl) : entry);
+    }
+
+    private CacheEntry<V> newEntry(V value, Duration ttl) {
+        return new CacheEntry<>(value, System.currentTimeMillis(), ttl.toNanos(), Math.max(1, weigher.applyAsInt(value)));
+    }
+
+    /**
+     * Restore an entry stored at the given time (ie loaded from a snapshot), keeping its age.
+     * Entries older than the default TTL are ignored
+     * @param key
+     * @param value
+     * @param createdAt epoch millis when the value was originally stored
+     * @return true when the entry is restored, false when it has expired
+     */
+    public boolean restore(K key, V value, long createdAt) {
+        long remainingMs = defaultTtl.toMillis() - (System.currentTimeMillis() - createdAt);
+        if (remainingMs <= 0) {
+            return false;
+        }
+        cache.put(key, new CacheEntry<>(value, createdAt, Duration.ofMillis(remainingMs).toNanos(),
+                Math.max(1, weigher.applyAsInt(value))));
+        return true;
+    }
+
+    /**
+     * Iterate over the entries currently in the cache (without updating the stats)
+     * @param action
+     */
+    public void forEach(BiConsumer<K, CacheEntry<V>> action) {
+        cache.asMap().forEach(action);
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counters and size of the cache
+     * @return
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("name", name);
+        ret.put("size", cache.estimatedSize());
+        cache.policy().eviction().ifPresent(eviction -> {
+            ret.put("weight", eviction.weightedSize().orElse(0));
+            ret.put("maxWeight", eviction.getMaximum());
+        });
+        ret.put("hits", stats.hitCount());
+        ret.put("misses", stats.missCount());
+        ret.put("hitRate", stats.hitRate());
+        ret.put("evictions", stats.evictionCount());
+        return ret;
+    }
+
+    /**
+     * Cached value with the time (epoch millis) it was stored
+     * @param value
+     * @param createdAt
+     * @param ttlNanos
+     * @param weight
+     * @param <V>
+     */
+    public record CacheEntry<V>(V value, long createdAt, long ttlNanos, int weight) {
+
+        /**
+         * Age of the entry in milliseconds
+         * @return
+         */
+        public long getAgeMs() {
+            return System.currentTimeMillis() - createdAt;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.adyen.cache;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.AccountHolderProjection;
+import com.adyen.model.TransactionItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save the cached account holders, pages and transactions to a local snapshot file, and restore them at startup.
+ *
+ * Restored entries keep their original age: they are served as stale data and refreshed in the background
+ * (see stale-while-revalidate in {@link AccountHolderCache}), so a restarted node does not need to wait for
+ * the Adyen API before serving its first page.
+ *
+ * The snapshot is a compact binary file (length-prefixed UTF-8 strings, big-endian numbers):
+ * written through a FileChannel to a temporary file and atomically moved in place, read back via a memory-mapped buffer.
+ */
+@Service
+public class CacheSnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(CacheSnapshotService.class);
+
+    private static final int MAGIC = 0x41465053; // "AFPS"
+    private static final int VERSION = 2;
+    private static final int NULL_STRING = -1;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile int restoredEntries = 0;
+
+    @PostConstruct
+    public void init() {
+        if (!getApplicationProperty().isCacheSnapshotEnabled()) {
+            return;
+        }
+
+        restore();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = getApplicationProperty().getCacheSnapshotIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::saveQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            // last snapshot before stopping
+            saveQuietly();
+        }
+    }
+
+    /**
+     * Number of entries restored from the snapshot at startup
+     * @return
+     */
+    public int getRestoredEntries() {
+        return restoredEntries;
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (Exception e) {
+            log.warn("Cannot save cache snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write the cache content to the snapshot file
+     * @throws IOException
+     */
+    public synchronized void save() throws IOException {
+        long start = System.currentTimeMillis();
+        Path path = getSnapshotPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        List<Map.Entry<String, BoundedCache.CacheEntry<AccountHolderProjection>>> accountHolders = entries(getAccountHolderCache().getAccountHolders());
+        List<Map.Entry<String, BoundedCache.CacheEntry<List<String>>>> pages = entries(getAccountHolderCache().getPages());
+        List<Map.Entry<String, BoundedCache.CacheEntry<List<TransactionItem>>>> transactions = entries(getAccountHolderCache().getTransactions());
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+
+            out.writeInt(accountHolders.size());
+            for (var entry : accountHolders) {
+                writeString(out, entry.getKey());
+                out.writeLong(entry.getValue().createdAt());
+                AccountHolderProjection accountHolder = entry.getValue().value();
+                writeString(out, accountHolder.getId());
+                writeString(out, accountHolder.getReference());
+                writeString(out, accountHolder.getDescription());
+                writeString(out, accountHolder.getStatus());
+                writeString(out, accountHolder.getLegalEntityId());
+                writeString(out, accountHolder.getLegalName());
+                writeString(out, accountHolder.getType());
+                writeString(out, accountHolder.getCountry());
+            }
+
+            out.writeInt(pages.size());
+            for (var entry : pages) {
+                writeString(out, entry.getKey());
+                out.writeLong(entry.getValue().createdAt());
+                out.writeInt(entry.getValue().value().size());
+                for (String accountHolderId : entry.getValue().value()) {
+                    writeString(out, accountHolderId);
+                }
+            }
+
+            out.writeInt(transactions.size());
+            for (var entry : transactions) {
+                writeString(out, entry.getKey());
+                out.writeLong(entry.getValue().createdAt());
+                out.writeInt(entry.getValue().value().size());
+                for (TransactionItem item : entry.getValue().value()) {
+                    writeString(out, item.getId());
+                    writeString(out, item.getStatus());
+                    writeString(out, item.getType());
+                    writeString(out, item.getCreated());
+                    writeString(out, item.getAmount());
+                }
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Cache snapshot saved ({} account holders, {} pages, {} transaction lists) in {}ms",
+                accountHolders.size(), pages.size(), transactions.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Load the snapshot file (if any) in the cache
+     */
+    void restore() {
+        long start = System.currentTimeMillis();
+        Path path = getSnapshotPath();
+
+        if (!Files.exists(path)) {
+            log.info("No cache snapshot found at {}", path);
+            return;
+        }
+
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Ignoring cache snapshot {}: unknown format", path);
+                return;
+            }
+            buffer.getLong(); // written at
+
+            int accountHolders = buffer.getInt();
+            for (int i = 0; i < accountHolders; i++) {
+                readString(buffer); // key: account holder id
+                long createdAt = buffer.getLong();
+                AccountHolderProjection accountHolder = new AccountHolderProjection(
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer),
+                        readString(buffer));
+                if (getAccountHolderCache().restoreAccountHolder(accountHolder, createdAt)) {
+                    count++;
+                }
+            }
+
+            int pages = buffer.getInt();
+            for (int i = 0; i < pages; i++) {
+                String key = readString(buffer);
+                long createdAt = buffer.getLong();
+                int size = buffer.getInt();
+                List<String> accountHolderIds = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    accountHolderIds.add(readString(buffer));
+                }
+                if (getAccountHolderCache().getPages().restore(key, accountHolderIds, createdAt)) {
+                    count++;
+                }
+            }
+
+            int transactions = buffer.getInt();
+            for (int i = 0; i < transactions; i++) {
+                String key = readString(buffer);
+                long createdAt = buffer.getLong();
+                int size = buffer.getInt();
+                List<TransactionItem> items = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    items.add(new TransactionItem()
+                            .id(readString(buffer))
+                            .status(readString(buffer))
+                            .type(readString(buffer))
+                            .created(readString(buffer))
+                            .amount(readString(buffer)));
+                }
+                if (getAccountHolderCache().getTransactions().restore(key, items, createdAt)) {
+                    count++;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Cannot restore cache snapshot {}: {}", path, e.getMessage());
+        }
+
+        restoredEntries = count;
+        log.info("Cache snapshot restored ({} entries) in {}ms", count, System.currentTimeMillis() - start);
+    }
+
+    private <V> List<Map.Entry<String, BoundedCache.CacheEntry<V>>> entries(BoundedCache<String, V> cache) {
+        List<Map.Entry<String, BoundedCache.CacheEntry<V>>> entries = new ArrayList<>();
+        cache.forEach((key, entry) -> entries.add(Map.entry(key, entry)));
+        return entries;
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path getSnapshotPath() {
+        return Path.of(getApplicationProperty().getCacheSnapshotPath()).toAbsolutePath();
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
+}
@@ -0,0 +1,70 @@
+package com.adyen.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run cache refreshes in the background, allowing at most one refresh in flight per key
+ */
+@Service
+public class RefreshScheduler {
+
+    private final Logger log = LoggerFactory.getLogger(RefreshScheduler.class);
+
+    private static final int THREADS = 2;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    public RefreshScheduler() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedule the refresh of the given key, unless a refresh of the same key is already in flight
+     * @param key
+     * @param refresh
+     * @return true when the refresh has been scheduled
+     */
+    public boolean schedule(String key, Runnable refresh) {
+        if (!inFlight.add(key)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (Exception e) {
+                    log.warn("Background refresh of {} failed: {}", key, e.getMessage());
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key);
+            throw e;
+        }
+
+        log.info("Scheduled background refresh of {}", key);
+        return true;
+    }
+}
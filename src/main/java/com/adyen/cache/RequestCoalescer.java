@@ -0,0 +1,101 @@
+package com.adyen.cache;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapse concurrent identical reads into a single call (single-flight).
+ *
+ * The first caller for a given group and key performs the call, the callers arriving while it is
+ * in flight wait and receive the same result (or exception). Nothing is cached once the call completes.
+ */
+@Service
+public class RequestCoalescer {
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Execute the call, or join the identical call already in flight
+     * @param group type of call (ie accountHolder, legalEntity)
+     * @param key identity of the call within the group (ie account holder id)
+     * @param call
+     * @return
+     * @param <V>
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String group, String key, Supplier<V> call) {
+        Group g = groups.computeIfAbsent(group, Group::new);
+
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = g.inFlight.putIfAbsent(key, created);
+
+        if (existing != null) {
+            g.collapsed.increment();
+            try {
+                return (V) existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        g.calls.increment();
+        try {
+            V value = call.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            g.inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Number of calls executed and collapsed, per group
+     * @return
+     */
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Group g : groups.values()) {
+            Map<String, Object> ret = new LinkedHashMap<>();
+            ret.put("name", g.name);
+            ret.put("calls", g.calls.sum());
+            ret.put("collapsed", g.collapsed.sum());
+            ret.put("inFlight", g.inFlight.size());
+            stats.add(ret);
+        }
+        return stats;
+    }
+
+    private RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+
+    private static class Group {
+        private final String name;
+        private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder collapsed = new LongAdder();
+
+        private Group(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.adyen.cache;
+
+import com.adyen.model.TransactionItem;
+import com.adyen.util.TransactionHandler;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable columnar snapshot of the transactions of an account holder, sorted by creation date.
+ *
+ * Each attribute is a primitive array indexed by row: amounts in minor units, creation time in epoch millis,
+ * status, type and currency as codes of a per-snapshot dictionary. Queries only scan the arrays, the rows are
+ * formatted (see {@link #getTransactionItem(int, TransactionHandler)}) once the page to return is known.
+ */
+public class TransactionColumns {
+
+    public static final String SORT_CREATED = "created";
+    public static final String SORT_AMOUNT = "amount";
+
+    private static final String INCOMING = "Incoming";
+    private static final String OUTGOING = "Outgoing";
+
+    private final int size;
+    private final String[] ids;
+    private final long[] createdAt;
+    private final int[] offsetSeconds;
+    private final long[] values;
+    private final int[] statuses;
+    private final int[] types;
+    private final int[] currencies;
+    private final Dictionary dictionary = new Dictionary();
+
+    // rows sorted by amount, built on the first query sorted by amount
+    private int[] byAmount;
+
+    /**
+     * Build the columns from the ledger entries
+     * @param entries latest entry of each transaction, sorted by creation date
+     */
+    TransactionColumns(List<TransactionLedger.Entry> entries) {
+        size = entries.size();
+        ids = new String[size];
+        createdAt = new long[size];
+        offsetSeconds = new int[size];
+        values = new long[size];
+        statuses = new int[size];
+        types = new int[size];
+        currencies = new int[size];
+
+        for (int row = 0; row < size; row++) {
+            TransactionLedger.Entry entry = entries.get(row);
+            ids[row] = entry.id();
+            createdAt[row] = entry.createdAt();
+            offsetSeconds[row] = entry.offsetSeconds();
+            values[row] = entry.value();
+            statuses[row] = dictionary.encode(entry.transactionItem().getStatus());
+            types[row] = dictionary.encode(entry.value() > 0 ? INCOMING : entry.value() < 0 ? OUTGOING : "");
+            currencies[row] = dictionary.encode(entry.currency());
+        }
+    }
+
+    /**
+     * Filter, sort and page the transactions
+     * @param filter     transactions to match
+     * @param sort       created or amount
+     * @param descending
+     * @param offset
+     * @param limit
+     * @return the rows of the page and the number of matching transactions
+     */
+    public QueryResult query(Filter filter, String sort, boolean descending, int offset, int limit) {
+        int[] order;
+        if (SORT_CREATED.equals(sort)) {
+            order = null;
+        } else if (SORT_AMOUNT.equals(sort)) {
+            order = getByAmount();
+        } else {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort);
+        }
+
+        BitSet matches = match(filter);
+        int total = matches.cardinality();
+
+        int[] rows = new int[Math.max(0, Math.min(limit, total - offset))];
+        int collected = 0;
+        int skipped = 0;
+        for (int i = 0; i < size && collected < rows.length; i++) {
+            int position = descending ? size - 1 - i : i;
+            int row = order != null ? order[position] : position;
+            if (matches.get(row) && skipped++ >= offset) {
+                rows[collected++] = row;
+            }
+        }
+
+        return new QueryResult(rows, total);
+    }
+
+    private BitSet match(Filter filter) {
+        BitSet matches = new BitSet(size);
+        // a filter on a value which is not in the dictionary matches nothing
+        int status = filter.status() != null ? dictionary.code(filter.status()) : -1;
+        int type = filter.direction() != null ? dictionary.code(directionValue(filter.direction())) : -1;
+        int currency = filter.currency() != null ? dictionary.code(filter.currency()) : -1;
+        if ((filter.status() != null && status < 0) || (filter.direction() != null && type < 0)
+                || (filter.currency() != null && currency < 0)) {
+            return matches;
+        }
+
+        for (int row = 0; row < size; row++) {
+            if (createdAt[row] >= filter.from() && createdAt[row] < filter.to()
+                    && values[row] >= filter.minAmount() && values[row] <= filter.maxAmount()
+                    && (status < 0 || statuses[row] == status)
+                    && (type < 0 || types[row] == type)
+                    && (currency < 0 || currencies[row] == currency)
+                    && (filter.id() == null || filter.id().equals(ids[row]))) {
+                matches.set(row);
+            }
+        }
+        return matches;
+    }
+
+    private String directionValue(String direction) {
+        if (INCOMING.equalsIgnoreCase(direction)) {
+            return INCOMING;
+        } else if (OUTGOING.equalsIgnoreCase(direction)) {
+            return OUTGOING;
+        }
+        throw new IllegalArgumentException("Unsupported direction: " + direction);
+    }
+
+    private synchronized int[] getByAmount() {
+        if (byAmount == null) {
+            // rows are sorted by creation date: the stable sort keeps that order for equal amounts
+            byAmount = IntStream.range(0, size)
+                    .boxed()
+                    .sorted((a, b) -> Long.compare(values[a], values[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return byAmount;
+    }
+
+    /**
+     * Format the row as a TransactionItem
+     * @param row
+     * @param transactionHandler
+     * @return
+     */
+    public TransactionItem getTransactionItem(int row, TransactionHandler transactionHandler) {
+        OffsetDateTime created = Instant.ofEpochMilli(createdAt[row])
+                .atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds[row]));
+        return transactionHandler.getTransactionItem(ids[row], dictionary.decode(statuses[row]),
+                dictionary.decode(currencies[row]), values[row], created);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Codes of the distinct values of the status, type and currency columns
+     */
+    private static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int code(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+    }
+
+    /**
+     * Transactions to match
+     * @param from      start of the creation range, epoch millis (inclusive)
+     * @param to        end of the creation range, epoch millis (exclusive)
+     * @param minAmount minimum amount in minor units, negative for outgoing transactions (inclusive)
+     * @param maxAmount maximum amount in minor units (inclusive)
+     * @param status    status (ie booked), or null for all
+     * @param direction Incoming or Outgoing, or null for all
+     * @param currency  currency code, or null for all
+     * @param id        id of the transaction, or null for all
+     */
+    public record Filter(long from, long to, long minAmount, long maxAmount, String status, String direction, String currency,
+                         String id) {
+    }
+
+    /**
+     * Page of matching transactions
+     * @param rows          rows of the page
+     * @param totalElements number of matching transactions
+     */
+    public record QueryResult(int[] rows, int totalElements) {
+    }
+}
@@ -0,0 +1,263 @@
+package com.adyen.cache;
+
+import com.adyen.model.TransactionItem;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Local ledger of the transactions of an account holder, kept in sync incrementally with the Transactions API.
+ *
+ * Transactions are appended as they are received: when a transaction is received again with a change (ie status
+ * change) the latest entry replaces the previous one in the reads. A transaction received again unchanged (ie overlapping
+ * sync windows) is skipped, so the derived views stay valid.
+ * The ledger also keeps the position of the sync: the high-water mark (createdUntil of the last completed sync)
+ * and, while a sync is in progress, its time window and the API cursor of the next page.
+ * Besides the list of TransactionItems, the transactions are available as {@link TransactionColumns} for queries.
+ */
+public class TransactionLedger {
+
+    // approximate heap size of an entry: record, id, TransactionItem and its strings, views and columns
+    private static final int ENTRY_SIZE = 512;
+    private static final int LEDGER_SIZE = 256;
+
+    private final List<Entry> entries = new ArrayList<>();
+    // position of the latest entry of each transaction
+    private final Map<String, Integer> latest = new HashMap<>();
+
+    private OffsetDateTime highWaterMark;
+    private OffsetDateTime pendingSince;
+    private OffsetDateTime pendingUntil;
+    private String pendingCursor;
+    private long lastSyncAt;
+
+    // transactions sorted by creation date, rebuilt after changes
+    private List<TransactionItem> view = List.of();
+    private long[] viewCreatedAt = new long[0];
+    private boolean viewDirty = false;
+    private TransactionColumns columns;
+
+    private boolean evicted;
+
+    /**
+     * Append a transaction, unless its latest entry has the same values (see {@link Entry#hasSameValues(Entry)})
+     * @param entry
+     * @return the latest entry of the transaction before this one (replaced, or kept when it has the same values),
+     * or null when the transaction is new
+     */
+    public synchronized Entry append(Entry entry) {
+        Integer previous = latest.get(entry.id());
+        if (previous != null && entries.get(previous).hasSameValues(entry)) {
+            return entries.get(previous);
+        }
+
+        latest.put(entry.id(), entries.size());
+        entries.add(entry);
+        viewDirty = true;
+        columns = null;
+        return previous != null ? entries.get(previous) : null;
+    }
+
+    /**
+     * Transactions created since the given time, sorted by creation date
+     * @param since epoch millis
+     * @return
+     */
+    public synchronized List<TransactionItem> getTransactions(long since) {
+        if (viewDirty) {
+            List<Entry> current = current();
+            view = current.stream().map(Entry::transactionItem).toList();
+            viewCreatedAt = current.stream().mapToLong(Entry::createdAt).toArray();
+            viewDirty = false;
+        }
+
+        // skip the transactions older than the given time
+        int from = Arrays.binarySearch(viewCreatedAt, since);
+        if (from < 0) {
+            from = -from - 1;
+        } else {
+            while (from > 0 && viewCreatedAt[from - 1] == since) {
+                from--;
+            }
+        }
+        return from == 0 ? view : view.subList(from, view.size());
+    }
+
+    /**
+     * Transactions in columnar form, rebuilt after changes
+     * @return
+     */
+    public synchronized TransactionColumns getColumns() {
+        if (columns == null) {
+            columns = new TransactionColumns(current());
+        }
+        return columns;
+    }
+
+    // latest entry of each transaction, sorted by creation date
+    private List<Entry> current() {
+        List<Entry> current = new ArrayList<>(latest.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (latest.get(entry.id()) == i) {
+                current.add(entry);
+            }
+        }
+        current.sort(Comparator.comparingLong(Entry::createdAt));
+        return current;
+    }
+
+    /**
+     * Drop the transactions created before the given time, and the entries replaced by a later one
+     * @param before epoch millis
+     */
+    public synchronized void compact(long before) {
+        List<Entry> kept = new ArrayList<>(latest.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (latest.get(entry.id()) == i && entry.createdAt() >= before) {
+                kept.add(entry);
+            }
+        }
+        if (kept.size() == entries.size()) {
+            return;
+        }
+
+        entries.clear();
+        latest.clear();
+        for (Entry entry : kept) {
+            latest.put(entry.id(), entries.size());
+            entries.add(entry);
+        }
+        viewDirty = true;
+        columns = null;
+    }
+
+    /**
+     * Number of entries (including the replaced ones)
+     * @return
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate heap size in bytes
+     * @return
+     */
+    public synchronized int estimateSize() {
+        return (int) Math.min(Integer.MAX_VALUE, LEDGER_SIZE + (long) entries.size() * ENTRY_SIZE);
+    }
+
+    /**
+     * The ledger has been evicted: it is no longer updated (a new ledger is synced from scratch)
+     */
+    public synchronized void markEvicted() {
+        evicted = true;
+    }
+
+    public synchronized boolean isEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Start a sync over the given time window (unless a sync is in progress)
+     * @param since
+     * @param until
+     */
+    public synchronized void startSync(OffsetDateTime since, OffsetDateTime until) {
+        if (pendingUntil == null) {
+            pendingSince = since;
+            pendingUntil = until;
+            pendingCursor = null;
+        }
+    }
+
+    /**
+     * Record the API cursor of the next page of the sync in progress
+     * @param cursor
+     */
+    public synchronized void setPendingCursor(String cursor) {
+        this.pendingCursor = cursor;
+    }
+
+    /**
+     * All pages have been read: move the high-water mark to the end of the sync window
+     * @param syncedAt epoch millis
+     */
+    public synchronized void completeSync(long syncedAt) {
+        highWaterMark = pendingUntil;
+        pendingSince = null;
+        pendingUntil = null;
+        pendingCursor = null;
+        lastSyncAt = syncedAt;
+    }
+
+    /**
+     * Discard the sync in progress: the next sync starts again from the high-water mark
+     */
+    public synchronized void abortSync() {
+        pendingSince = null;
+        pendingUntil = null;
+        pendingCursor = null;
+    }
+
+    public synchronized boolean isSyncPending() {
+        return pendingUntil != null;
+    }
+
+    public synchronized OffsetDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public synchronized OffsetDateTime getPendingSince() {
+        return pendingSince;
+    }
+
+    public synchronized OffsetDateTime getPendingUntil() {
+        return pendingUntil;
+    }
+
+    public synchronized String getPendingCursor() {
+        return pendingCursor;
+    }
+
+    public synchronized long getLastSyncAt() {
+        return lastSyncAt;
+    }
+
+    /**
+     * Transaction in the ledger
+     * @param id
+     * @param createdAt epoch millis of the transaction creation
+     * @param offsetSeconds UTC offset of the transaction creation date
+     * @param currency
+     * @param value amount in minor units
+     * @param transactionItem
+     */
+    public record Entry(String id, long createdAt, int offsetSeconds, String currency, long value,
+                        TransactionItem transactionItem) {
+
+        /**
+         * Whether the other entry has the same values: creation date, amount and status
+         * (the other fields of the TransactionItem are derived from these)
+         * @param other
+         * @return
+         */
+        public boolean hasSameValues(Entry other) {
+            return other != null
+                    && id.equals(other.id)
+                    && createdAt == other.createdAt
+                    && offsetSeconds == other.offsetSeconds
+                    && value == other.value
+                    && Objects.equals(currency, other.currency)
+                    && Objects.equals(transactionItem.getStatus(), other.transactionItem.getStatus());
+        }
+    }
+}
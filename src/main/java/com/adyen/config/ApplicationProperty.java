@@ -30,6 +30,105 @@ public class ApplicationProperty {
     @Value("${ADYEN_COMPONENTS_ALLOW_ORIGIN}")
     private String componentsAllowOrigin;
 
+    @Value("${ACCOUNT_HOLDERS_FETCH_PARALLELISM:8}")
+    private int accountHoldersFetchParallelism;
+
+    @Value("${ACCOUNT_HOLDERS_PAGE_DEADLINE_MS:5000}")
+    private long accountHoldersPageDeadlineMs;
+
+    @Value("${CACHE_TTL_MS:300000}")
+    private long cacheTtlMs;
+
+    @Value("${ACCOUNT_HOLDERS_CACHE_MAX_BYTES:33554432}")
+    private long accountHoldersCacheMaxBytes;
+
+    @Value("${TRANSACTIONS_CACHE_MAX_BYTES:67108864}")
+    private long transactionsCacheMaxBytes;
+
+    @Value("${CACHE_STALE_WHILE_REVALIDATE:true}")
+    private boolean cacheStaleWhileRevalidate;
+
+    @Value("${CACHE_HARD_EXPIRY_MS:3600000}")
+    private long cacheHardExpiryMs;
+
+    @Value("${CACHE_WARMUP_ENABLED:false}")
+    private boolean cacheWarmupEnabled;
+
+    @Value("${CACHE_WARMUP_RATE_PER_SECOND:20}")
+    private int cacheWarmupRatePerSecond;
+
+    @Value("${CACHE_WARMUP_TIMEOUT_MS:60000}")
+    private long cacheWarmupTimeoutMs;
+
+    @Value("${CACHE_SNAPSHOT_ENABLED:false}")
+    private boolean cacheSnapshotEnabled;
+
+    @Value("${CACHE_SNAPSHOT_PATH:cache-snapshot.bin}")
+    private String cacheSnapshotPath;
+
+    @Value("${CACHE_SNAPSHOT_INTERVAL_MS:60000}")
+    private long cacheSnapshotIntervalMs;
+
+    @Value("${LEGAL_ENTITIES_CACHE_MAX_BYTES:8388608}")
+    private long legalEntitiesCacheMaxBytes;
+
+    @Value("${LEGAL_ENTITIES_CACHE_TTL_MS:300000}")
+    private long legalEntitiesCacheTtlMs;
+
+    @Value("${TRANSACTIONS_SYNC_INTERVAL_MS:10000}")
+    private long transactionsSyncIntervalMs;
+
+    @Value("${TRANSACTIONS_SYNC_OVERLAP_MS:60000}")
+    private long transactionsSyncOverlapMs;
+
+    @Value("${TRANSACTIONS_STORE_ENABLED:false}")
+    private boolean transactionsStoreEnabled;
+
+    @Value("${TRANSACTIONS_STORE_PATH:transactions-store}")
+    private String transactionsStorePath;
+
+    @Value("${TRANSACTIONS_SEARCH_PARALLELISM:4}")
+    private int transactionsSearchParallelism;
+
+    @Value("${TRANSACTIONS_SEARCH_DEADLINE_MS:30000}")
+    private long transactionsSearchDeadlineMs;
+
+    @Value("${WEBHOOK_JOURNAL_ENABLED:true}")
+    private boolean webhookJournalEnabled;
+
+    @Value("${WEBHOOK_JOURNAL_PATH:webhook-journal}")
+    private String webhookJournalPath;
+
+    @Value("${WEBHOOK_JOURNAL_MAX_BYTES:67108864}")
+    private long webhookJournalMaxBytes;
+
+    @Value("${WEBHOOK_WORKERS:4}")
+    private int webhookWorkers;
+
+    @Value("${WEBHOOK_IDEMPOTENCY_ENABLED:true}")
+    private boolean webhookIdempotencyEnabled;
+
+    @Value("${WEBHOOK_IDEMPOTENCY_CAPACITY:1000000}")
+    private int webhookIdempotencyCapacity;
+
+    @Value("${WEBHOOK_IDEMPOTENCY_LRU_SIZE:10000}")
+    private int webhookIdempotencyLruSize;
+
+    @Value("${WEBHOOK_HMAC_VALIDATION_ENABLED:true}")
+    private boolean webhookHmacValidationEnabled;
+
+    @Value("${TRANSACTIONS_LEDGER_MAX_BYTES:67108864}")
+    private long transactionsLedgerMaxBytes;
+
+    @Value("${TRANSACTIONS_LEDGER_IDLE_MS:3600000}")
+    private long transactionsLedgerIdleMs;
+
+    @Value("${ADYEN_API_CONNECT_TIMEOUT_MS:5000}")
+    private int apiConnectTimeoutMs;
+
+    @Value("${ADYEN_API_READ_TIMEOUT_MS:15000}")
+    private int apiReadTimeoutMs;
+
     public String getApiKey() {
         return apiKey;
     }
@@ -93,4 +192,268 @@ public class ApplicationProperty {
     public void setComponentsAllowOrigin(String componentsAllowOrigin) {
         this.componentsAllowOrigin = componentsAllowOrigin;
     }
+
+    public int getAccountHoldersFetchParallelism() {
+        return accountHoldersFetchParallelism;
+    }
+
+    public void setAccountHoldersFetchParallelism(int accountHoldersFetchParallelism) {
+        this.accountHoldersFetchParallelism = accountHoldersFetchParallelism;
+    }
+
+    public long getAccountHoldersPageDeadlineMs() {
+        return accountHoldersPageDeadlineMs;
+    }
+
+    public void setAccountHoldersPageDeadlineMs(long accountHoldersPageDeadlineMs) {
+        this.accountHoldersPageDeadlineMs = accountHoldersPageDeadlineMs;
+    }
+
+    public long getCacheTtlMs() {
+        return cacheTtlMs;
+    }
+
+    public void setCacheTtlMs(long cacheTtlMs) {
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    public long getAccountHoldersCacheMaxBytes() {
+        return accountHoldersCacheMaxBytes;
+    }
+
+    public void setAccountHoldersCacheMaxBytes(long accountHoldersCacheMaxBytes) {
+        this.accountHoldersCacheMaxBytes = accountHoldersCacheMaxBytes;
+    }
+
+    public long getTransactionsCacheMaxBytes() {
+        return transactionsCacheMaxBytes;
+    }
+
+    public void setTransactionsCacheMaxBytes(long transactionsCacheMaxBytes) {
+        this.transactionsCacheMaxBytes = transactionsCacheMaxBytes;
+    }
+
+    public boolean isCacheStaleWhileRevalidate() {
+        return cacheStaleWhileRevalidate;
+    }
+
+    public void setCacheStaleWhileRevalidate(boolean cacheStaleWhileRevalidate) {
+        this.cacheStaleWhileRevalidate = cacheStaleWhileRevalidate;
+    }
+
+    public long getCacheHardExpiryMs() {
+        return cacheHardExpiryMs;
+    }
+
+    public void setCacheHardExpiryMs(long cacheHardExpiryMs) {
+        this.cacheHardExpiryMs = cacheHardExpiryMs;
+    }
+
+    public boolean isCacheWarmupEnabled() {
+        return cacheWarmupEnabled;
+    }
+
+    public void setCacheWarmupEnabled(boolean cacheWarmupEnabled) {
+        this.cacheWarmupEnabled = cacheWarmupEnabled;
+    }
+
+    public int getCacheWarmupRatePerSecond() {
+        return cacheWarmupRatePerSecond;
+    }
+
+    public void setCacheWarmupRatePerSecond(int cacheWarmupRatePerSecond) {
+        this.cacheWarmupRatePerSecond = cacheWarmupRatePerSecond;
+    }
+
+    public long getCacheWarmupTimeoutMs() {
+        return cacheWarmupTimeoutMs;
+    }
+
+    public void setCacheWarmupTimeoutMs(long cacheWarmupTimeoutMs) {
+        this.cacheWarmupTimeoutMs = cacheWarmupTimeoutMs;
+    }
+
+    public boolean isCacheSnapshotEnabled() {
+        return cacheSnapshotEnabled;
+    }
+
+    public void setCacheSnapshotEnabled(boolean cacheSnapshotEnabled) {
+        this.cacheSnapshotEnabled = cacheSnapshotEnabled;
+    }
+
+    public String getCacheSnapshotPath() {
+        return cacheSnapshotPath;
+    }
+
+    public void setCacheSnapshotPath(String cacheSnapshotPath) {
+        this.cacheSnapshotPath = cacheSnapshotPath;
+    }
+
+    public long getCacheSnapshotIntervalMs() {
+        return cacheSnapshotIntervalMs;
+    }
+
+    public void setCacheSnapshotIntervalMs(long cacheSnapshotIntervalMs) {
+        this.cacheSnapshotIntervalMs = cacheSnapshotIntervalMs;
+    }
+
+    public long getLegalEntitiesCacheMaxBytes() {
+        return legalEntitiesCacheMaxBytes;
+    }
+
+    public void setLegalEntitiesCacheMaxBytes(long legalEntitiesCacheMaxBytes) {
+        this.legalEntitiesCacheMaxBytes = legalEntitiesCacheMaxBytes;
+    }
+
+    public long getLegalEntitiesCacheTtlMs() {
+        return legalEntitiesCacheTtlMs;
+    }
+
+    public void setLegalEntitiesCacheTtlMs(long legalEntitiesCacheTtlMs) {
+        this.legalEntitiesCacheTtlMs = legalEntitiesCacheTtlMs;
+    }
+
+    public long getTransactionsSyncIntervalMs() {
+        return transactionsSyncIntervalMs;
+    }
+
+    public void setTransactionsSyncIntervalMs(long transactionsSyncIntervalMs) {
+        this.transactionsSyncIntervalMs = transactionsSyncIntervalMs;
+    }
+
+    public long getTransactionsSyncOverlapMs() {
+        return transactionsSyncOverlapMs;
+    }
+
+    public void setTransactionsSyncOverlapMs(long transactionsSyncOverlapMs) {
+        this.transactionsSyncOverlapMs = transactionsSyncOverlapMs;
+    }
+
+    public boolean isTransactionsStoreEnabled() {
+        return transactionsStoreEnabled;
+    }
+
+    public void setTransactionsStoreEnabled(boolean transactionsStoreEnabled) {
+        this.transactionsStoreEnabled = transactionsStoreEnabled;
+    }
+
+    public String getTransactionsStorePath() {
+        return transactionsStorePath;
+    }
+
+    public void setTransactionsStorePath(String transactionsStorePath) {
+        this.transactionsStorePath = transactionsStorePath;
+    }
+
+    public int getTransactionsSearchParallelism() {
+        return transactionsSearchParallelism;
+    }
+
+    public void setTransactionsSearchParallelism(int transactionsSearchParallelism) {
+        this.transactionsSearchParallelism = transactionsSearchParallelism;
+    }
+
+    public long getTransactionsSearchDeadlineMs() {
+        return transactionsSearchDeadlineMs;
+    }
+
+    public void setTransactionsSearchDeadlineMs(long transactionsSearchDeadlineMs) {
+        this.transactionsSearchDeadlineMs = transactionsSearchDeadlineMs;
+    }
+
+    public boolean isWebhookJournalEnabled() {
+        return webhookJournalEnabled;
+    }
+
+    public void setWebhookJournalEnabled(boolean webhookJournalEnabled) {
+        this.webhookJournalEnabled = webhookJournalEnabled;
+    }
+
+    public String getWebhookJournalPath() {
+        return webhookJournalPath;
+    }
+
+    public void setWebhookJournalPath(String webhookJournalPath) {
+        this.webhookJournalPath = webhookJournalPath;
+    }
+
+    public long getWebhookJournalMaxBytes() {
+        return webhookJournalMaxBytes;
+    }
+
+    public void setWebhookJournalMaxBytes(long webhookJournalMaxBytes) {
+        this.webhookJournalMaxBytes = webhookJournalMaxBytes;
+    }
+
+    public int getWebhookWorkers() {
+        return webhookWorkers;
+    }
+
+    public void setWebhookWorkers(int webhookWorkers) {
+        this.webhookWorkers = webhookWorkers;
+    }
+
+    public boolean isWebhookIdempotencyEnabled() {
+        return webhookIdempotencyEnabled;
+    }
+
+    public void setWebhookIdempotencyEnabled(boolean webhookIdempotencyEnabled) {
+        this.webhookIdempotencyEnabled = webhookIdempotencyEnabled;
+    }
+
+    public int getWebhookIdempotencyCapacity() {
+        return webhookIdempotencyCapacity;
+    }
+
+    public void setWebhookIdempotencyCapacity(int webhookIdempotencyCapacity) {
+        this.webhookIdempotencyCapacity = webhookIdempotencyCapacity;
+    }
+
+    public int getWebhookIdempotencyLruSize() {
+        return webhookIdempotencyLruSize;
+    }
+
+    public void setWebhookIdempotencyLruSize(int webhookIdempotencyLruSize) {
+        this.webhookIdempotencyLruSize = webhookIdempotencyLruSize;
+    }
+
+    public boolean isWebhookHmacValidationEnabled() {
+        return webhookHmacValidationEnabled;
+    }
+
+    public void setWebhookHmacValidationEnabled(boolean webhookHmacValidationEnabled) {
+        this.webhookHmacValidationEnabled = webhookHmacValidationEnabled;
+    }
+
+    public long getTransactionsLedgerMaxBytes() {
+        return transactionsLedgerMaxBytes;
+    }
+
+    public void setTransactionsLedgerMaxBytes(long transactionsLedgerMaxBytes) {
+        this.transactionsLedgerMaxBytes = transactionsLedgerMaxBytes;
+    }
+
+    public long getTransactionsLedgerIdleMs() {
+        return transactionsLedgerIdleMs;
+    }
+
+    public void setTransactionsLedgerIdleMs(long transactionsLedgerIdleMs) {
+        this.transactionsLedgerIdleMs = transactionsLedgerIdleMs;
+    }
+
+    public int getApiConnectTimeoutMs() {
+        return apiConnectTimeoutMs;
+    }
+
+    public void setApiConnectTimeoutMs(int apiConnectTimeoutMs) {
+        this.apiConnectTimeoutMs = apiConnectTimeoutMs;
+    }
+
+    public int getApiReadTimeoutMs() {
+        return apiReadTimeoutMs;
+    }
+
+    public void setApiReadTimeoutMs(int apiReadTimeoutMs) {
+        this.apiReadTimeoutMs = apiReadTimeoutMs;
+    }
 }
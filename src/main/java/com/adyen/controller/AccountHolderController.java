@@ -1,21 +1,48 @@
 package com.adyen.controller;
 
-import com.adyen.model.balanceplatform.AccountHolder;
+import com.adyen.cache.AccountHolderCache;
+import com.adyen.cache.AccountHolderIndex;
+import com.adyen.cache.BoundedCache;
+import com.adyen.cache.RefreshScheduler;
+import com.adyen.cache.TransactionColumns;
+import com.adyen.model.AccountHolderProjection;
+import com.adyen.model.TransactionItem;
+import com.adyen.model.TransactionPage;
 import com.adyen.model.legalentitymanagement.LegalEntity;
+import com.adyen.service.AccountHolderPageLoader;
+import com.adyen.service.AccountHolderRegistry;
 import com.adyen.service.ConfigurationAPIService;
 import com.adyen.service.LegalEntityManagementAPIService;
+import com.adyen.service.TransactionRollupService;
+import com.adyen.service.TransactionSyncService;
+import com.adyen.store.TransactionStore;
+import com.adyen.util.TransactionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api")
@@ -29,99 +56,125 @@ public class AccountHolderController extends BaseController {
     @Autowired
     private LegalEntityManagementAPIService legalEntityManagementAPIService;
 
-    private static final Map<String, Map<String, Object>> accountHoldersCache = new ConcurrentHashMap<>();
-    private static final Map<String, Long> pageCacheTimestamps = new ConcurrentHashMap<>();
-    private static final Map<String, List<?>> transactionsCache = new ConcurrentHashMap<>();
-    private static final Map<String, Long> transactionsCacheTimestamps = new ConcurrentHashMap<>();
-    private static final long CACHE_DURATION_MS = 5 * 60 * 1000;
-
-    private static final List<String> ALL_ACCOUNT_HOLDER_IDS = List.of(
-            "AH32CMW223227V5L96JRP5PWF", "AH3296422322B25NPSHM827KG", "AH32CP222322B35NQC8V2FZZJ", "AH3295622322B25NQ7FKP6DBV",
-            "AH32CP222322B35NQRX9X5NXB", "AH32CT822322B25NQ2Z6M8TXQ", "AH32CP222322B35NQ7TG5CN57",
-            "AH32CP222322B35NQ7TGBCN6S", "AH3295422322B35NQCVMS7XF9", "AH3295422322B35NQCVP67XGH",
-            "AH32CQL22322B35NQ7WP88KN6", "AH3295422322B35NQ889S2XZN", "AH3295V22322B35NQ88CC7DBM",
-            "AH3295422322B35NQ888P2XXX", "AH3295422322B35NQ8C6K35SV", "AH3295322322B35NQ8C2W6SN2",
-            "AH3295V22322B35NQD5JSDZZG", "AH3295V22322B35NQD5KGF232", "AH3295322322B35NQ8DV66XLF",
-            "AH3295V22322B35NQD5MGF2KG", "AH3295422322B35NQ8Q5D4822", "AH3295322322B35NQ8PNP7SSV",
-            "AH32CP222322B35NQ8P7WDN7Z", "AH3295322322B35NQ8QCC7V7C", "AH3295422322B35NQ8QTL49SZ",
-            "AH32CP222322B35NQ8RHJDRCZ", "AH3295V22322B35NQ8SMH8SBX", "AH3295322322B35NQSBKL6L3N",
-            "AH3295322322B35NQ8SJG83TS", "AH3295V22322B35NQ8RLR8QV2", "AH32CT822322B25NQ4HTV9TMS",
-            "AH32CP222322B25NQ4HZL8Q5K", "AH32CP722322B25NQ4HPM4X37", "AH32CP722322B25NQ4HQM4X45",
-            "AH32CP722322B25NQ4HZC4X8C", "AH32CT822322B25NQ4J449TSV", "AH3295422322B35NQ97FT56JG",
-            "AH32CP722322B25NPS29HCMSV", "AH32CP722322B25NPS29LCMTL", "AH3295M22322B35NRWF959C3R",
-            "AH3296X22322B35NR7PZT2G9T", "AH3296X22322B35NR7PTX2FQD", "AH329BZ22322B35NR7SHF9G7M",
-            "AH32CKZ22322B35NR82TX7ZJZ", "AH3296X22322B35NR87VF47TP", "AH3295M22322B35NR87S67LBK",
-            "AH329BZ22322B35NR8DD4CGC2", "AH3295322322B35NQWD2ZCDF4", "AH32CP222322B35NQWK5J8LN9",
-            "AH32CTR22322B35NQWKVG9779", "AH32CKZ22322B35NR8KJW8XK9", "AH32CND22322B35NQWWW63L8G",
-            "AH32CMH22322B35NQWWTW7GDT", "AH32CND22322B35NQWX4D3LGK", "AH32CQL22322B35NQWX3B67SK",
-            "AH32CND22322B35NQX4CL3T89", "AH32CQL22322B35NQX4CT6HT9", "AH32CND22322B35NQX4DB3T9S",
-            "AH32CQL22322B35NQX7RF6SBD", "AH32CND22322B35NQX7HQ44JT", "AH3295M22322B35NQXC885ZWQ",
-            "AH3295M22322B35NQXC5X5ZNM", "AH3295Z22322B35NQXHXZ9RQX", "AH3296X22322B35NQXR54GD77",
-            "AH3295M22322B35NS42CJ6BWQ", "AH3296X22322B35NRQKT8G99W", "AH329B822322B35NS78D4CK8N",
-            "AH3295M22322B35NS42TS6C98", "AH3295M22322B35NS42M26C57", "AH32CMR22322B35NS5NFZBQNN",
-            "AH3295M22322B35NS5NLS9ZKF", "AH3296X22322B35NS47GR35XJ", "AH3296X22322B35NRR2MN23KV",
-            "AH329BZ22322B35NRR2QH8PFK", "AH32CKZ22322B35NRBXBLBHP2", "AH3296X22322B35NRBXLG8K28",
-            "AH329BZ22322B35NS49D7B3TF", "AH32CL822322B35NRRJ4677PP", "AH329BZ22322B35NS4BCKBB5T",
-            "AH3296X22322B35NS4CLH3WT7", "AH32CND22322B35NR3CJ46BVS", "AH32CKZ22322B35NR3CJ855D9",
-            "AH3296T22322B35NS78CMCBNL", "AH32CND22322B35NR3LWB6RHV", "AH329BZ22322B35NS4FXWBNDB",
-            "AH3295M22322B35NS4GW47ZZP", "AH3296T22322B35NS6N58BGJN", "AH329B822322B35NS6NDGBQFL",
-            "AH3295M22322B35NS4NDB8L4Z", "AH3296T22322B35NS6P3HBHMZ", "AH3296T22322B35NS6P4QBHR9",
-            "AH3296L22322B35NS6P6ZDVMG", "AH329B822322B35NS6PK5BSCW", "AH32CM722322B35NS6PL9BBH4",
-            "AH32CKZ22322B35NRVSJ644QD", "AH32CMR22322B35NRVSHSGBFZ", "AH329BZ22322B35NRVWR8CTHM",
-            "AH3295M22322B35NRJQNH3XRM", "AH3296L22322B35NS787XFNQP", "AH329BZ22322B35NRW6SBD7N3",
-            "AH3296X22322B35NRW76G5LM2", "AH3296X22322B35NRW76W5LN2", "AH3295M22322B35NRW8NK95CZ",
-            "AH3295M22322B35NRW8NN95DQ", "AH3295M22322B35NRW9X4962T", "AH32CMZ22322B55NTBDXMC23Q",
-            "AH32CNZ22322B55NTBFRHF3ND", "AH32CNZ22322B55NTBFRKF3P6", "AH3294H22322B55NTBHB33NGM",
-            "AH329C722322B35NT2MR463W5", "AH3296L22322B35NT2MQG7VMD", "AH3292W22322B55NT6WC67N7W",
-            "AH3298822322B55NT6V552NVX", "AH3292W22322B55NT6VRW7M65", "AH3298822322B55NT6VNT2QTT",
-            "AH32CKZ22322B35NSR7J7C65S", "AH32CM722322B35NSR7K87H7N", "AH32CM722322B35NSR7X47HQ2",
-            "AH32CKZ22322B35NSR9CCC9RP", "AH329B822322B35NSR8LG38HV", "AH32CM722322B35NSR8LC7L47",
-            "AH32CM722322B35NSR8LL7L6L", "AH32CQG22322B35NSR8L865KC", "AH3296T22322B35NSR7R52MJH",
-            "AH32CM722322B35NSR7XK7HR2", "AH3296L22322B35NSR7R65843", "AH3296T22322B35NSR9C82TVR",
-            "AH329B822322B35NSR8NS392G", "AH329B822322B35NSR9CK3B43", "AH3296T22322B35NSRFMJ3F93",
-            "AH3298822322B55NT72X236KD", "AH3296L22322B35NSC5897MQF", "AH32CQG22322B35NSTX2J8ZB7",
-            "AH32CQG22322B35NSTWXM8Z96", "AH3298822322B55NT78GN43BK", "AH3298822322B55NT7K2P56PL",
-            "AH3298822322B55NT7K2S56QC", "AH3292W22322B55NT7K2Q9XPL", "AH3292W22322B55NT7K2P9XNP",
-            "AH3294H22322B55NT7JXSDJZV", "AH3292W22322B55NT7JZB9XFV", "AH3294H22322B55NT7K2RDKCD",
-            "AH32CMZ22322B55NT7LPR8TDG", "AH32CMZ22322B55NT7LRB8TJ7", "AH32CQZ22322B55NT7LRB6ZHW",
-            "AH32CMZ22322B55NT7LR98THB", "AH3294H22322B55NT7LZNDVLN", "AH3294H22322B55NT7M9CDW89",
-            "AH329B822322B35NT5PBRFMSL", "AH329C722322B35NT68CNGHFF", "AH32CQZ22322B55NTB7B392KD",
-            "AH32CMZ22322B55NTB7H7BVFD", "AH32CQZ22322B55NT8G8B8FXD", "AH3294H22322B55NTB9GZ3D9S",
-            "AH329B822322B35NSPVLZF64P", "AH32CMZ22322B55NTBDDRBZDR"
-    );
+    @Autowired
+    private AccountHolderPageLoader accountHolderPageLoader;
+
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
+    @Autowired
+    private RefreshScheduler refreshScheduler;
+
+    @Autowired
+    private AccountHolderRegistry accountHolderRegistry;
+
+    @Autowired
+    private TransactionSyncService transactionSyncService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionStore transactionStore;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private TransactionHandler transactionHandler;
+
+    private static final String DATA_AGE_HEADER = "X-Data-Age-Ms";
+    private static final String DATA_STALE_HEADER = "X-Data-Stale";
+    private static final String CURSOR_PREFIX = "after:";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_BATCH_SIZE = 100;
+    private static final int TRANSACTIONS_PAGE_LIMIT = 100;
 
     @GetMapping("/accountHolders")
     ResponseEntity<Map<String, Object>> getAccountHolders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> type,
+            @RequestParam(required = false) List<String> country,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        if (size <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        if (status != null || type != null || country != null || sort != null) {
+            if (cursor != null) {
+                // cursors follow the account holders list order, which filtered queries do not use
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            return queryAccountHolders(page, size, status, type, country, sort, ifNoneMatch);
+        }
 
         try {
-            int totalElements = ALL_ACCOUNT_HOLDER_IDS.size();
+            int totalElements = getAccountHolderRegistry().getAccountHolderIds().size();
             int totalPages = (int) Math.ceil((double) totalElements / size);
 
-            if (page < 0 || (page >= totalPages && totalElements > 0)) {
-                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            int fromIndex;
+            if (cursor != null) {
+                // the page starts after the last account holder of the previous page, wherever it is now in the list
+                String afterAccountHolderId = decodeCursor(cursor);
+                int position = afterAccountHolderId != null ? getAccountHolderRegistry().indexOf(afterAccountHolderId) : -1;
+                if (position < 0) {
+                    log.warn("Invalid cursor: {}", cursor);
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                fromIndex = position + 1;
+                page = fromIndex / size;
+            } else {
+                if (page < 0 || (page >= totalPages && totalElements > 0)) {
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                fromIndex = page * size;
             }
 
-            int fromIndex = page * size;
             int toIndex = Math.min(fromIndex + size, totalElements);
-            List<String> pageAccountHolderIds = ALL_ACCOUNT_HOLDER_IDS.subList(fromIndex, toIndex);
+            List<String> pageAccountHolderIds = getAccountHolderRegistry().getAccountHolderIds().subList(fromIndex, toIndex);
 
-            String pageKey = page + "_" + size;
-            long currentTime = System.currentTimeMillis();
-            Long cacheTime = pageCacheTimestamps.get(pageKey);
+            String pageKey = fromIndex + "_" + size;
+            Optional<BoundedCache.CacheEntry<List<String>>> cachedPage = getAccountHolderCache().getPages().getEntry(pageKey);
 
-            List<Map<String, Object>> pageContent;
-            if (cacheTime != null && (currentTime - cacheTime) < CACHE_DURATION_MS) {
+            List<AccountHolderProjection> pageContent;
+            long dataAgeMs = 0;
+            boolean stale = false;
+            if (cachedPage.isPresent() && getAccountHolderCache().isFresh(cachedPage.get())) {
                 log.info("Using cached data for page {}", page);
-                pageContent = pageAccountHolderIds.stream()
-                        .map(accountHoldersCache::get)
-                        .filter(data -> data != null)
-                        .toList();
+                pageContent = getCachedAccountHolders(pageAccountHolderIds, true);
+                dataAgeMs = cachedPage.get().getAgeMs();
+            } else if (cachedPage.isPresent() && getAccountHolderCache().isStaleWhileRevalidate()) {
+                log.info("Using stale data for page {}, refreshing in the background", page);
+                pageContent = getCachedAccountHolders(pageAccountHolderIds, true);
+                dataAgeMs = cachedPage.get().getAgeMs();
+                stale = true;
+                getRefreshScheduler().schedule("page:" + pageKey, () -> {
+                    fetchAccountHoldersPage(pageAccountHolderIds);
+                    getAccountHolderCache().getPages().put(pageKey, pageAccountHolderIds);
+                });
             } else {
                 log.info("Fetching page {} from Adyen API ({} account holders)", page, pageAccountHolderIds.size());
-                pageContent = fetchAccountHoldersPage(pageAccountHolderIds);
-                pageCacheTimestamps.put(pageKey, currentTime);
+                pageContent = getCachedAccountHolders(pageAccountHolderIds, false);
+                getAccountHolderCache().getPages().put(pageKey, pageAccountHolderIds);
+            }
+
+            boolean last = toIndex >= totalElements;
+            String nextCursor = !last && !pageAccountHolderIds.isEmpty() ?
+                    encodeCursor(pageAccountHolderIds.get(pageAccountHolderIds.size() - 1)) : null;
+
+            // the age of the data is only sent in the headers: the body (and its ETag) changes only when the content does
+            HttpHeaders headers = dataAgeHeaders(dataAgeMs);
+            headers.set(DATA_STALE_HEADER, String.valueOf(stale));
+            String eTag = pageETag(pageContent, fromIndex, size, totalElements);
+            headers.setETag(eTag);
+            if (eTagMatches(ifNoneMatch, eTag)) {
+                log.info("Page {} not modified", page);
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -130,84 +183,197 @@ public class AccountHolderController extends BaseController {
             response.put("size", size);
             response.put("totalElements", totalElements);
             response.put("totalPages", totalPages);
-            response.put("first", page == 0);
-            response.put("last", page >= totalPages - 1);
+            response.put("first", fromIndex == 0);
+            response.put("last", last);
+            response.put("nextCursor", nextCursor);
 
             log.info("Returned page {} of {} (size: {}, total: {})", page, totalPages, pageContent.size(), totalElements);
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return new ResponseEntity<>(response, headers, HttpStatus.OK);
         } catch (Exception e) {
             log.error("Error fetching account holders", e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    private List<Map<String, Object>> fetchAccountHoldersPage(List<String> accountHolderIds) {
-        List<Map<String, Object>> results = new ArrayList<>();
+    /**
+     * Export all account holders as newline-delimited JSON (one account holder per line).
+     *
+     * Account holders are written in batches, straight from their pre-serialized JSON: cached entries are used
+     * (even when stale), missing ones are fetched concurrently. Each batch is flushed before the next one is loaded,
+     * so writes block when the client reads slowly and only one batch is held in memory.
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping(value = "/accountHolders/export", produces = NDJSON)
+    void exportAccountHolders(HttpServletResponse response) throws IOException {
+        List<String> accountHolderIds = getAccountHolderRegistry().getAccountHolderIds();
+        long start = System.currentTimeMillis();
+        int exported = 0;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+
+        try {
+            for (int from = 0; from < accountHolderIds.size(); from += EXPORT_BATCH_SIZE) {
+                List<String> batch = accountHolderIds.subList(from, Math.min(from + EXPORT_BATCH_SIZE, accountHolderIds.size()));
+                for (AccountHolderProjection accountHolder : getCachedAccountHolders(batch, true)) {
+                    out.write(accountHolder.getJsonBytes());
+                    out.write('\n');
+                    exported++;
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Account holders export interrupted after {} account holders: {}", exported, e.getMessage());
+            return;
+        }
+
+        log.info("Exported {} account holders in {}ms", exported, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Filter and sort the indexed account holders (see {@link AccountHolderIndex}): the Adyen API is not called,
+     * only the account holders already loaded (cache warm-up, snapshot, previous requests) are returned
+     * @param page
+     * @param size
+     * @param status
+     * @param type
+     * @param country
+     * @param sort field to sort by, optionally followed by the direction (ie legalName,desc)
+     * @return
+     */
+    private ResponseEntity<Map<String, Object>> queryAccountHolders(int page, int size, List<String> status,
+                                                                    List<String> type, List<String> country, String sort,
+                                                                    String ifNoneMatch) {
+        if (page < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        Map<String, Collection<String>> filters = new HashMap<>();
+        if (status != null) {
+            filters.put(AccountHolderIndex.STATUS, status);
+        }
+        if (type != null) {
+            filters.put(AccountHolderIndex.TYPE, type);
+        }
+        if (country != null) {
+            filters.put(AccountHolderIndex.COUNTRY, country);
+        }
+
+        String sortField = null;
+        boolean descending = false;
+        if (sort != null && !sort.isBlank()) {
+            String[] sortParts = sort.split(",");
+            sortField = sortParts[0];
+            descending = sortParts.length > 1 && "desc".equalsIgnoreCase(sortParts[1]);
+        }
+
+        AccountHolderIndex.QueryResult result;
+        try {
+            result = getAccountHolderCache().getAccountHolderIndex()
+                    .query(filters, sortField, descending, page * size, size);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid account holders query: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        int totalPages = (int) Math.ceil((double) result.totalElements() / size);
+        if (page >= totalPages && result.totalElements() > 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        int indexedElements = getAccountHolderCache().getAccountHolderIndex().size();
+        HttpHeaders headers = new HttpHeaders();
+        String eTag = pageETag(result.content(), page * size, size, result.totalElements(), indexedElements,
+                result.facets().hashCode());
+        headers.setETag(eTag);
+        if (eTagMatches(ifNoneMatch, eTag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", result.content());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("totalElements", result.totalElements());
+        response.put("totalPages", totalPages);
+        response.put("first", page == 0);
+        response.put("last", page >= totalPages - 1);
+        response.put("facets", result.facets());
+        response.put("indexedElements", indexedElements);
+
+        log.info("Returned page {} of {} from the index (size: {}, matches: {})", page, totalPages, result.content().size(), result.totalElements());
+        return new ResponseEntity<>(response, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Get the account holders from the cache, fetching the ones which are not cached (ie evicted in the meantime)
+     * @param accountHolderIds
+     * @param includeStale whether cached entries older than the cache TTL can be returned
+     * @return
+     */
+    private List<AccountHolderProjection> getCachedAccountHolders(List<String> accountHolderIds, boolean includeStale) {
+        Map<String, AccountHolderProjection> found = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
 
         for (String accountHolderId : accountHolderIds) {
-            try {
-                var accountHolderOpt = getConfigurationAPIService().getAccountHolder(accountHolderId);
-                if (accountHolderOpt.isPresent()) {
-                    AccountHolder accountHolder = accountHolderOpt.get();
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("id", accountHolder.getId());
-                    data.put("accountHolderId", accountHolder.getId());
-                    data.put("reference", accountHolder.getReference());
-                    data.put("description", accountHolder.getDescription());
-                    data.put("status", accountHolder.getStatus() != null ? accountHolder.getStatus().getValue() : null);
-
-                    if (accountHolder.getLegalEntityId() != null) {
-                        try {
-                            LegalEntity legalEntity = getLegalEntityManagementAPIService().get(accountHolder.getLegalEntityId());
-                            data.put("legalEntityId", legalEntity.getId());
-                            data.put("legalName", legalEntity.getIndividual() != null ?
-                                    legalEntity.getIndividual().getName().getFirstName() + " " + legalEntity.getIndividual().getName().getLastName() :
-                                    legalEntity.getOrganization() != null ? legalEntity.getOrganization().getLegalName() :
-                                            legalEntity.getSoleProprietorship() != null ? legalEntity.getSoleProprietorship().getName() : null);
-                            data.put("type", legalEntity.getType() != null ? legalEntity.getType().getValue() : null);
-                            data.put("country", legalEntity.getIndividual() != null && legalEntity.getIndividual().getResidentialAddress() != null ?
-                                    legalEntity.getIndividual().getResidentialAddress().getCountry() :
-                                    legalEntity.getOrganization() != null && legalEntity.getOrganization().getRegisteredAddress() != null ?
-                                            legalEntity.getOrganization().getRegisteredAddress().getCountry() : null);
-                        } catch (Exception e) {
-                            log.warn("Failed to fetch legal entity {} for account holder {}: {}",
-                                    accountHolder.getLegalEntityId(), accountHolderId, e.getMessage());
-                        }
-                    }
+            getAccountHolderCache().getAccountHolders().getEntry(accountHolderId)
+                    .filter(entry -> includeStale || getAccountHolderCache().isFresh(entry))
+                    .ifPresentOrElse(entry -> found.put(accountHolderId, entry.value()), () -> missingIds.add(accountHolderId));
+        }
 
-                    accountHoldersCache.put(accountHolderId, data);
-                    results.add(data);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch account holder {}: {}", accountHolderId, e.getMessage());
+        if (!missingIds.isEmpty()) {
+            log.info("Fetching {} account holders not found in the cache", missingIds.size());
+            for (AccountHolderProjection accountHolder : fetchAccountHoldersPage(missingIds)) {
+                found.put(accountHolder.getAccountHolderId(), accountHolder);
             }
         }
 
+        return accountHolderIds.stream()
+                .map(found::get)
+                .filter(data -> data != null)
+                .toList();
+    }
+
+    private List<AccountHolderProjection> fetchAccountHoldersPage(List<String> accountHolderIds) {
+        List<AccountHolderProjection> results = getAccountHolderPageLoader().load(accountHolderIds);
+
+        for (AccountHolderProjection accountHolder : results) {
+            getAccountHolderCache().putAccountHolder(accountHolder);
+        }
+
         log.info("Fetched and cached {} account holders from Adyen API", results.size());
         return results;
     }
 
     @GetMapping("/accountHolders/{accountHolderId}")
-    ResponseEntity<Map<String, Object>> getAccountHolder(@PathVariable String accountHolderId) {
+    ResponseEntity<AccountHolderProjection> getAccountHolder(@PathVariable String accountHolderId) {
         try {
-            Map<String, Object> accountHolderData = accountHoldersCache.get(accountHolderId);
+            Optional<BoundedCache.CacheEntry<AccountHolderProjection>> cachedAccountHolder =
+                    getAccountHolderCache().getAccountHolders().getEntry(accountHolderId);
 
-            if (accountHolderData != null) {
+            if (cachedAccountHolder.isPresent() && (getAccountHolderCache().isFresh(cachedAccountHolder.get())
+                    || getAccountHolderCache().isStaleWhileRevalidate())) {
                 log.info("Returning cached account holder: {}", accountHolderId);
-                return new ResponseEntity<>(accountHolderData, HttpStatus.OK);
+                if (!getAccountHolderCache().isFresh(cachedAccountHolder.get())) {
+                    getRefreshScheduler().schedule("accountHolder:" + accountHolderId,
+                            () -> fetchAccountHoldersPage(List.of(accountHolderId)));
+                }
+                return new ResponseEntity<>(cachedAccountHolder.get().value(),
+                        dataAgeHeaders(cachedAccountHolder.get().getAgeMs()), HttpStatus.OK);
             }
 
             log.info("Account holder not in cache, fetching from Adyen API: {}", accountHolderId);
-            List<Map<String, Object>> result = fetchAccountHoldersPage(List.of(accountHolderId));
+            List<AccountHolderProjection> result = fetchAccountHoldersPage(List.of(accountHolderId));
 
             if (result.isEmpty()) {
                 log.warn("Account holder not found: {}", accountHolderId);
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             }
 
-            accountHolderData = result.get(0);
             log.info("Successfully fetched and cached account holder: {}", accountHolderId);
-            return new ResponseEntity<>(accountHolderData, HttpStatus.OK);
+            return new ResponseEntity<>(result.get(0), dataAgeHeaders(0), HttpStatus.OK);
         } catch (Exception e) {
             log.error("Error fetching account holder: {}", accountHolderId, e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -215,21 +381,34 @@ public class AccountHolderController extends BaseController {
     }
 
     @GetMapping("/accountHolders/{accountHolderId}/transactions")
-    ResponseEntity<?> getAccountHolderTransactions(@PathVariable String accountHolderId) {
+    ResponseEntity<?> getAccountHolderTransactions(@PathVariable String accountHolderId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit) {
+        if (cursor != null || limit != null) {
+            return getAccountHolderTransactionsPage(accountHolderId, cursor, limit);
+        }
+
         try {
-            long currentTime = System.currentTimeMillis();
-            Long cacheTime = transactionsCacheTimestamps.get(accountHolderId);
+            Optional<BoundedCache.CacheEntry<List<TransactionItem>>> cachedTransactions =
+                    getAccountHolderCache().getTransactions().getEntry(accountHolderId);
 
-            List<?> transactions;
-            if (cacheTime != null && (currentTime - cacheTime) < CACHE_DURATION_MS) {
+            List<TransactionItem> transactions;
+            long dataAgeMs = 0;
+            if (cachedTransactions.isPresent() && (getAccountHolderCache().isFresh(cachedTransactions.get())
+                    || getAccountHolderCache().isStaleWhileRevalidate())) {
                 log.info("Returning cached transactions for account holder: {}", accountHolderId);
-                transactions = transactionsCache.get(accountHolderId);
+                transactions = cachedTransactions.get().value();
+                dataAgeMs = cachedTransactions.get().getAgeMs();
+                if (!getAccountHolderCache().isFresh(cachedTransactions.get())) {
+                    getRefreshScheduler().schedule("transactions:" + accountHolderId, () ->
+                            getAccountHolderCache().getTransactions().put(accountHolderId,
+                                    getTransactionSyncService().getTransactions(accountHolderId)));
+                }
             } else {
                 log.info("Fetching transactions from Adyen API for account holder: {}", accountHolderId);
                 try {
-                    transactions = getConfigurationAPIService().getTransactions(accountHolderId);
-                    transactionsCache.put(accountHolderId, transactions);
-                    transactionsCacheTimestamps.put(accountHolderId, currentTime);
+                    transactions = getTransactionSyncService().getTransactions(accountHolderId);
+                    getAccountHolderCache().getTransactions().put(accountHolderId, transactions);
                 } catch (RuntimeException e) {
                     log.warn("Failed to fetch transactions from Adyen API for account holder {}: {}. Returning empty list. " +
                             "This may be due to missing Transfers API credentials or permissions.", accountHolderId, e.getMessage());
@@ -238,13 +417,275 @@ public class AccountHolderController extends BaseController {
             }
 
             log.info("Retrieved {} transactions for account holder: {}", transactions.size(), accountHolderId);
-            return new ResponseEntity<>(transactions, HttpStatus.OK);
+            return new ResponseEntity<>(transactions, dataAgeHeaders(dataAgeMs), HttpStatus.OK);
         } catch (Exception e) {
             log.error("Unexpected error fetching transactions for account holder: {}", accountHolderId, e);
             return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
         }
     }
 
+    /**
+     * Page of transactions read from the Adyen API (not cached): the nextCursor of the response gives the next page
+     * @param accountHolderId
+     * @param cursor
+     * @param limit
+     * @return
+     */
+    private ResponseEntity<?> getAccountHolderTransactionsPage(String accountHolderId, String cursor, Integer limit) {
+        int pageLimit = limit != null ? limit : TRANSACTIONS_PAGE_LIMIT;
+        if (pageLimit <= 0 || pageLimit > TRANSACTIONS_PAGE_LIMIT) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            TransactionPage transactionPage = getConfigurationAPIService().getTransactionsPage(accountHolderId, cursor, pageLimit);
+            log.info("Retrieved page of {} transactions for account holder: {}", transactionPage.getContent().size(), accountHolderId);
+            return new ResponseEntity<>(transactionPage, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Error fetching transactions page for account holder: {}", accountHolderId, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Transactions of the account holder created in the range, read from the local transactions store
+     * (the Adyen API is not called: the store contains the transactions synced so far)
+     * @param accountHolderId
+     * @param from start of the range (ISO date-time, inclusive)
+     * @param to end of the range (ISO date-time, exclusive), default now
+     * @param status status of the transactions (ie booked)
+     * @param direction Incoming or Outgoing
+     * @return
+     */
+    @GetMapping("/accountHolders/{accountHolderId}/transactions/range")
+    ResponseEntity<List<TransactionItem>> getAccountHolderTransactionsRange(
+            @PathVariable String accountHolderId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String direction) {
+
+        if (!getTransactionStore().isEnabled()) {
+            log.warn("Transactions store is not enabled (TRANSACTIONS_STORE_ENABLED)");
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        Instant until = to != null ? to.toInstant() : Instant.now();
+        if (!from.toInstant().isBefore(until)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            List<TransactionItem> transactions = getTransactionStore().query(accountHolderId, from.toInstant(), until, status, direction);
+            log.info("Retrieved {} stored transactions for account holder: {}", transactions.size(), accountHolderId);
+            return new ResponseEntity<>(transactions, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Error reading stored transactions for account holder: {}", accountHolderId, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Filter, sort and page the transactions of the account holder (last 180 days), from the columnar form of the
+     * synced transactions: only the transactions of the page are formatted
+     * @param accountHolderId
+     * @param page
+     * @param size
+     * @param from start of the creation range (ISO date-time, inclusive)
+     * @param to end of the creation range (ISO date-time, exclusive)
+     * @param minAmount minimum amount in minor units, negative for outgoing transactions
+     * @param maxAmount maximum amount in minor units
+     * @param status status of the transactions (ie booked)
+     * @param direction Incoming or Outgoing
+     * @param currency
+     * @param sort created or amount, optionally followed by the direction (ie amount,desc), default created,desc
+     * @return
+     */
+    @GetMapping("/accountHolders/{accountHolderId}/transactions/query")
+    ResponseEntity<Map<String, Object>> queryAccountHolderTransactions(
+            @PathVariable String accountHolderId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) Long minAmount,
+            @RequestParam(required = false) Long maxAmount,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String currency,
+            @RequestParam(defaultValue = "created,desc") String sort) {
+
+        if (page < 0 || size <= 0 || size > TRANSACTIONS_PAGE_LIMIT) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        String[] sortParts = sort.split(",");
+        boolean descending = sortParts.length > 1 && "desc".equalsIgnoreCase(sortParts[1]);
+
+        TransactionColumns.Filter filter = new TransactionColumns.Filter(
+                from != null ? from.toInstant().toEpochMilli() : Long.MIN_VALUE,
+                to != null ? to.toInstant().toEpochMilli() : Long.MAX_VALUE,
+                minAmount != null ? minAmount : Long.MIN_VALUE,
+                maxAmount != null ? maxAmount : Long.MAX_VALUE,
+                status, direction, currency, null);
+
+        try {
+            TransactionColumns columns = getTransactionSyncService().syncIfDue(accountHolderId).getColumns();
+            TransactionColumns.QueryResult result = columns.query(filter, sortParts[0], descending, page * size, size);
+
+            List<TransactionItem> content = new ArrayList<>(result.rows().length);
+            for (int row : result.rows()) {
+                content.add(columns.getTransactionItem(row, getTransactionHandler()));
+            }
+
+            int totalPages = (int) Math.ceil((double) result.totalElements() / size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", content);
+            response.put("page", page);
+            response.put("size", size);
+            response.put("totalElements", result.totalElements());
+            response.put("totalPages", totalPages);
+            response.put("first", page == 0);
+            response.put("last", page >= totalPages - 1);
+
+            log.info("Queried {} of {} transactions for account holder: {}", result.totalElements(), columns.size(), accountHolderId);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid transactions query: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Error querying transactions for account holder: {}", accountHolderId, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Incoming and outgoing totals of the account holder per currency, by day and by month (UTC), in minor units.
+     * The totals are maintained as the transactions are synced, so the response does not depend on the number of transactions
+     * @param accountHolderId
+     * @return
+     */
+    @GetMapping("/accountHolders/{accountHolderId}/transactions/summary")
+    ResponseEntity<Map<String, Object>> getAccountHolderTransactionsSummary(@PathVariable String accountHolderId) {
+        try {
+            getTransactionSyncService().syncIfDue(accountHolderId);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("accountHolderId", accountHolderId);
+            summary.put("currencies", getTransactionRollupService().getSummary(accountHolderId));
+            return new ResponseEntity<>(summary, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error("Error retrieving transactions summary for account holder: {}", accountHolderId, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Stream all transactions of the account holder as newline-delimited JSON (one transaction per line).
+     * Each page is written and flushed as soon as it is received from the Adyen API, so the first rows
+     * can be rendered before the whole 180-day window has been read
+     * @param accountHolderId
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping(value = "/accountHolders/{accountHolderId}/transactions/stream", produces = NDJSON)
+    void streamAccountHolderTransactions(@PathVariable String accountHolderId, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        AtomicInteger streamed = new AtomicInteger();
+
+        try {
+            getConfigurationAPIService().forEachTransactionPage(accountHolderId, transactionItems -> {
+                try {
+                    for (TransactionItem transactionItem : transactionItems) {
+                        out.write(getObjectMapper().writeValueAsBytes(transactionItem));
+                        out.write('\n');
+                        streamed.incrementAndGet();
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Transactions stream interrupted after {} transactions: {}", streamed.get(), e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            // the response is already committed: log and end the stream
+            log.error("Error streaming transactions for account holder: {}", accountHolderId, e);
+            return;
+        }
+
+        log.info("Streamed {} transactions for account holder: {}", streamed.get(), accountHolderId);
+    }
+
+    /**
+     * Headers exposing how old (in milliseconds) the returned data is
+     * @param dataAgeMs
+     * @return
+     */
+    private HttpHeaders dataAgeHeaders(long dataAgeMs) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(DATA_AGE_HEADER, String.valueOf(dataAgeMs));
+        return headers;
+    }
+
+    /**
+     * Strong ETag of a page: hash of the content of its account holders and of the paging values
+     * @param content
+     * @param pagingValues
+     * @return
+     */
+    private String pageETag(List<AccountHolderProjection> content, long... pagingValues) {
+        long hash = 17;
+        for (long value : pagingValues) {
+            hash = 31 * hash + value;
+        }
+        for (AccountHolderProjection accountHolder : content) {
+            hash = 31 * hash + accountHolder.getContentHash();
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opaque cursor pointing after the given account holder
+     * @param accountHolderId
+     * @return
+     */
+    private String encodeCursor(String accountHolderId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + accountHolderId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return decoded.startsWith(CURSOR_PREFIX) ? decoded.substring(CURSOR_PREFIX.length()) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @GetMapping("/legalEntities/{legalEntityId}")
     ResponseEntity<LegalEntity> getLegalEntity(@PathVariable String legalEntityId) {
         try {
@@ -271,4 +712,76 @@ public class AccountHolderController extends BaseController {
     public void setLegalEntityManagementAPIService(LegalEntityManagementAPIService legalEntityManagementAPIService) {
         this.legalEntityManagementAPIService = legalEntityManagementAPIService;
     }
+
+    public AccountHolderPageLoader getAccountHolderPageLoader() {
+        return accountHolderPageLoader;
+    }
+
+    public void setAccountHolderPageLoader(AccountHolderPageLoader accountHolderPageLoader) {
+        this.accountHolderPageLoader = accountHolderPageLoader;
+    }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
+
+    public RefreshScheduler getRefreshScheduler() {
+        return refreshScheduler;
+    }
+
+    public void setRefreshScheduler(RefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
+    }
+
+    public AccountHolderRegistry getAccountHolderRegistry() {
+        return accountHolderRegistry;
+    }
+
+    public void setAccountHolderRegistry(AccountHolderRegistry accountHolderRegistry) {
+        this.accountHolderRegistry = accountHolderRegistry;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public TransactionSyncService getTransactionSyncService() {
+        return transactionSyncService;
+    }
+
+    public void setTransactionSyncService(TransactionSyncService transactionSyncService) {
+        this.transactionSyncService = transactionSyncService;
+    }
+
+    public TransactionStore getTransactionStore() {
+        return transactionStore;
+    }
+
+    public void setTransactionStore(TransactionStore transactionStore) {
+        this.transactionStore = transactionStore;
+    }
+
+    public TransactionRollupService getTransactionRollupService() {
+        return transactionRollupService;
+    }
+
+    public void setTransactionRollupService(TransactionRollupService transactionRollupService) {
+        this.transactionRollupService = transactionRollupService;
+    }
+
+    public TransactionHandler getTransactionHandler() {
+        return transactionHandler;
+    }
+
+    public void setTransactionHandler(TransactionHandler transactionHandler) {
+        this.transactionHandler = transactionHandler;
+    }
 }
@@ -1,5 +1,6 @@
 package com.adyen.controller;
 
+import com.adyen.cache.AccountHolderCache;
 import com.adyen.model.balanceplatform.PaginatedPaymentInstrumentsResponse;
 import com.adyen.service.ConfigurationAPIService;
 import org.slf4j.Logger;
@@ -18,6 +19,9 @@ public class BalanceAccountController extends BaseController {
     @Autowired
     private ConfigurationAPIService configurationAPIService;
 
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
     /**
      * Get payment instruments for a balance account
      * @param balanceAccountCode
@@ -27,7 +31,13 @@ public class BalanceAccountController extends BaseController {
     ResponseEntity<PaginatedPaymentInstrumentsResponse> getPaymentInstruments(@PathVariable String balanceAccountCode) {
 
         try {
+            var cached = getAccountHolderCache().getPaymentInstruments().getEntry(balanceAccountCode);
+            if (cached.isPresent() && getAccountHolderCache().isFresh(cached.get())) {
+                return new ResponseEntity<>(cached.get().value(), HttpStatus.OK);
+            }
+
             var paymentInstruments = getConfigurationAPIService().getPaymentInstruments(balanceAccountCode);
+            getAccountHolderCache().getPaymentInstruments().put(balanceAccountCode, paymentInstruments);
             return new ResponseEntity<>(paymentInstruments, HttpStatus.OK);
         } catch (Exception e) {
             log.error("Error fetching payment instruments for balance account: {}", balanceAccountCode, e);
@@ -42,4 +52,12 @@ public class BalanceAccountController extends BaseController {
     public void setConfigurationAPIService(ConfigurationAPIService configurationAPIService) {
         this.configurationAPIService = configurationAPIService;
     }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
 }
@@ -0,0 +1,81 @@
+package com.adyen.controller;
+
+import com.adyen.cache.AccountHolderCache;
+import com.adyen.cache.RequestCoalescer;
+import com.adyen.service.LegalEntityManagementAPIService;
+import com.adyen.service.TransactionSyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expose the cache metrics (size, hits, misses, evictions) and the request coalescing metrics
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private LegalEntityManagementAPIService legalEntityManagementAPIService;
+
+    @Autowired
+    private TransactionSyncService transactionSyncService;
+
+    @GetMapping("/stats")
+    ResponseEntity<List<Map<String, Object>>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>(getAccountHolderCache().getStats());
+        stats.add(getLegalEntityManagementAPIService().getCacheStats());
+        stats.add(getTransactionSyncService().getLedgerStats());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    @GetMapping("/coalescing")
+    ResponseEntity<List<Map<String, Object>>> getCoalescingStats() {
+        return new ResponseEntity<>(getRequestCoalescer().getStats(), HttpStatus.OK);
+    }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    public LegalEntityManagementAPIService getLegalEntityManagementAPIService() {
+        return legalEntityManagementAPIService;
+    }
+
+    public void setLegalEntityManagementAPIService(LegalEntityManagementAPIService legalEntityManagementAPIService) {
+        this.legalEntityManagementAPIService = legalEntityManagementAPIService;
+    }
+
+    public TransactionSyncService getTransactionSyncService() {
+        return transactionSyncService;
+    }
+
+    public void setTransactionSyncService(TransactionSyncService transactionSyncService) {
+        this.transactionSyncService = transactionSyncService;
+    }
+}
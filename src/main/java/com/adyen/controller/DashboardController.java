@@ -15,6 +15,7 @@ import com.adyen.service.AHManagementAPIService;
 import com.adyen.service.ConfigurationAPIService;
 import com.adyen.service.LegalEntityManagementAPIService;
 import com.adyen.service.SessionAuthenticationAPIService;
+import com.adyen.service.TransactionSyncService;
 import com.adyen.util.LegalEntityHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,9 @@ public class DashboardController extends BaseController {
     @Autowired
     private AHManagementAPIService ahManagementAPIService;
 
+    @Autowired
+    private TransactionSyncService transactionSyncService;
+
 
     /**
      * Get User who has logged in (user id found in Session)
@@ -125,7 +129,7 @@ public class DashboardController extends BaseController {
         }
 
         return new ResponseEntity<>(
-                getConfigurationAPIService().getTransactions(getUserIdOnSession()), HttpStatus.ACCEPTED);
+                getTransactionSyncService().getTransactions(getUserIdOnSession()), HttpStatus.ACCEPTED);
     }
 
     /**
@@ -278,4 +282,12 @@ public class DashboardController extends BaseController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    public TransactionSyncService getTransactionSyncService() {
+        return transactionSyncService;
+    }
+
+    public void setTransactionSyncService(TransactionSyncService transactionSyncService) {
+        this.transactionSyncService = transactionSyncService;
+    }
 }
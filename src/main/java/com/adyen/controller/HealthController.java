@@ -0,0 +1,61 @@
+package com.adyen.controller;
+
+import com.adyen.service.CacheWarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Readiness probe and startup warm-up status
+ */
+@RestController
+@RequestMapping("/api/health")
+public class HealthController {
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    /**
+     * Ready when the application accepts traffic and the cache warm-up (if enabled) is completed or timed out
+     * @return 200 when ready, 503 otherwise
+     */
+    @GetMapping("/readiness")
+    ResponseEntity<Map<String, Object>> readiness() {
+        boolean ready = getApplicationAvailability().getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC
+                && getCacheWarmupService().isReady();
+
+        return new ResponseEntity<>(Map.of("ready", ready, "warmup", getCacheWarmupService().getStatus()),
+                ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @GetMapping("/warmup")
+    ResponseEntity<Map<String, Object>> warmup() {
+        return new ResponseEntity<>(getCacheWarmupService().getStatus(), HttpStatus.OK);
+    }
+
+    public ApplicationAvailability getApplicationAvailability() {
+        return applicationAvailability;
+    }
+
+    public void setApplicationAvailability(ApplicationAvailability applicationAvailability) {
+        this.applicationAvailability = applicationAvailability;
+    }
+
+    public CacheWarmupService getCacheWarmupService() {
+        return cacheWarmupService;
+    }
+
+    public void setCacheWarmupService(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+}
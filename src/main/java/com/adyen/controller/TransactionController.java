@@ -0,0 +1,98 @@
+package com.adyen.controller;
+
+import com.adyen.service.TransactionSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transactions across account holders
+ */
+@RestController
+@RequestMapping("/api/transactions")
+public class TransactionController {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private TransactionSearchService transactionSearchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Search the transactions of all account holders by id and/or amount, streamed as newline-delimited JSON
+     * (one match per line: accountHolderId and transaction) as the account holders are searched
+     * @param id id of the transaction
+     * @param amount amount in minor units (incoming or outgoing)
+     * @param currency
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping(value = "/search", produces = NDJSON)
+    void searchTransactions(@RequestParam(required = false) String id,
+                            @RequestParam(required = false) Long amount,
+                            @RequestParam(required = false) String currency,
+                            HttpServletResponse response) throws IOException {
+        if (id == null && amount == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "id or amount is required");
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        AtomicInteger matched = new AtomicInteger();
+        long start = System.currentTimeMillis();
+
+        try {
+            int searched = getTransactionSearchService().search(id, amount, currency, match -> {
+                try {
+                    out.write(getObjectMapper().writeValueAsBytes(match));
+                    out.write('\n');
+                    out.flush();
+                    matched.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Transaction search: {} matches in {} account holders ({}ms)", matched.get(), searched,
+                    System.currentTimeMillis() - start);
+        } catch (UncheckedIOException e) {
+            log.warn("Transaction search stream interrupted after {} matches: {}", matched.get(), e.getMessage());
+        } catch (RuntimeException e) {
+            // the response is already committed: log and end the stream
+            log.error("Error searching transactions", e);
+        }
+    }
+
+    public TransactionSearchService getTransactionSearchService() {
+        return transactionSearchService;
+    }
+
+    public void setTransactionSearchService(TransactionSearchService transactionSearchService) {
+        this.transactionSearchService = transactionSearchService;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+}
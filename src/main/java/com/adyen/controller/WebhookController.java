@@ -2,22 +2,17 @@ package com.adyen.controller;
 
 import com.adyen.config.ApplicationProperty;
 import com.adyen.exception.InvalidWebhookTypeException;
-import com.adyen.model.configurationwebhooks.AccountHolder;
-import com.adyen.model.configurationwebhooks.AccountHolderNotificationRequest;
-import com.adyen.model.configurationwebhooks.BalanceAccountNotificationRequest;
-import com.adyen.model.configurationwebhooks.PaymentNotificationRequest;
-import com.adyen.notification.BankingWebhookHandler;
-import com.adyen.service.ConfigurationAPIService;
-import com.adyen.service.SignupService;
+import com.adyen.service.WebhookService;
 import com.adyen.util.AfpEventHandler;
-import com.adyen.util.HMACValidator;
+import com.adyen.util.WebhookSignatureValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 
@@ -30,88 +25,64 @@ public class WebhookController {
     private final Logger log = LoggerFactory.getLogger(WebhookController.class);
 
     @Autowired
-    private SignupService signupService;
+    private ApplicationProperty applicationProperty;
 
     @Autowired
-    private ApplicationProperty applicationProperty;
-    private HMACValidator hmacValidator = new HMACValidator();
+    private AfpEventHandler afpEventHandler;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private WebhookSignatureValidator webhookSignatureValidator;
 
     /**
-     * Process incoming
+     * Process incoming: the event is acknowledged once journaled, then processed asynchronously (see {@link WebhookService})
      *
-     * @param json Payload of the webhook
+     * @param payload Payload of the webhook (raw bytes: parsed once, see {@link AfpEventHandler})
      * @return
      */
     @PostMapping("/webhooks/notifications")
-    public ResponseEntity<String> webhooks(@RequestHeader Map<String, String> headers, @RequestBody String json) throws Exception {
+    public ResponseEntity<String> webhooks(@RequestHeader Map<String, String> headers, @RequestBody byte[] payload) throws Exception {
         log.info("/webhooks/notifications");
 
-        log.info("payload " + json);
+        if (log.isDebugEnabled()) {
+            log.debug("payload " + new String(payload, StandardCharsets.UTF_8));
+        }
 
         // find and validate HMAC signature
         String hmacsignature = headers.get("hmacsignature");
         log.info("hmacsignature " + hmacsignature);
 
-        if (hmacsignature == null || hmacsignature.isBlank()) {
-            log.warn("HMAC Signature not found");
-            throw new RuntimeException("HMAC Signature not found");
+        // validated over the raw body, before any parsing (see WEBHOOK_HMAC_VALIDATION_ENABLED to disable on local testing)
+        if (getApplicationProperty().isWebhookHmacValidationEnabled()) {
+            if (hmacsignature == null || hmacsignature.isBlank()) {
+                log.warn("HMAC Signature not found");
+                return new ResponseEntity<>("HMAC Signature not found", HttpStatus.UNAUTHORIZED);
+            }
+            if (!getWebhookSignatureValidator().isValid(payload, hmacsignature)) {
+                log.warn("Invalid HMAC signature");
+                return new ResponseEntity<>("Invalid HMAC signature", HttpStatus.UNAUTHORIZED);
+            }
         }
 
-        // disabled for convenience: HMAC validation should be enabled on your integration
-//        if (!hmacValidator.validateHMAC(json, hmacsignature, applicationProperty.getHmacKey())) {
-//            log.warn("Invalid HMAC signature");
-//            throw new RuntimeException("Invalid HMAC signature");
-//        }
-
-        // Deserialise json payload
-        AfpEventHandler afpEventHandler = new AfpEventHandler();
-        BankingWebhookHandler webhookHandler = new BankingWebhookHandler(json);
-
-        String type = afpEventHandler.getEventType(json);
-        String environment = afpEventHandler.getEventEnvironment(json);
+        // type of the event: unsupported events are rejected before being journaled
+        AfpEventHandler.Event afpEvent = getAfpEventHandler().getEvent(payload);
+        String type = afpEvent.type();
+        String environment = afpEvent.environment();
 
         log.info("Event " + type + " on " + environment);
 
-        switch (type) {
-            case "balancePlatform.accountHolder.created":
-                webhookHandler.getAccountHolderNotificationRequest().ifPresent((AccountHolderNotificationRequest event) -> {
-                    // new AccountHolder created
-                });
-                break;
-            case "balancePlatform.accountHolder.updated":
-                webhookHandler.getAccountHolderNotificationRequest().ifPresent((AccountHolderNotificationRequest event) -> {
-                    //  AccountHolder updated: complete signup
-                    getSignupService().completeSignup(event.getData().getAccountHolder().getId());
-                });
-                break;
-            case "balancePlatform.balanceAccount.created":
-                webhookHandler.getBalanceAccountNotificationRequest().ifPresent((BalanceAccountNotificationRequest event) -> {
-                    // new BalanceAccount created
-                });
-                break;
-            case "balancePlatform.balanceAccount.updated":
-                webhookHandler.getBalanceAccountNotificationRequest().ifPresent((BalanceAccountNotificationRequest event) -> {
-                    // BalanceAccount updated
-                });
-                break;
-            case "balancePlatform.paymentInstrument.created":
-                webhookHandler.getPaymentNotificationRequest().ifPresent((PaymentNotificationRequest event) -> {
-                    // new PaymentInstrument created
-                });
-                break;
-            case "balancePlatform.paymentInstrument.updated":
-                webhookHandler.getPaymentNotificationRequest().ifPresent((PaymentNotificationRequest event) -> {
-                    // PaymentInstrument updated
-                });
-                break;
-
-//          implement other events...
-//
-//
-            default:
-                // deal with unexpected event (ie there is a new event that must be processed?)
-                log.error("Unexpected event type: " + type);
-                throw new InvalidWebhookTypeException("Unexpected event type: " + type);
+        if (!getWebhookService().isSupported(type)) {
+            // deal with unexpected event (ie there is a new event that must be processed?)
+            log.error("Unexpected event type: " + type);
+            throw new InvalidWebhookTypeException("Unexpected event type: " + type);
+        }
+
+        // journaled (or processed when the journal is disabled) before the acknowledgement
+        if (!getWebhookService().submit(payload)) {
+            // redelivery of an event already accepted: acknowledge it again, without processing
+            log.info("Duplicate event " + afpEvent.type() + " acknowledged");
         }
 
         // Acknowledge event has been consumed
@@ -119,6 +90,15 @@ public class WebhookController {
 
     }
 
+    /**
+     * Webhook journal and processing metrics (pending events, events per fsync, processed and failed events, duplicate rate)
+     * @return
+     */
+    @GetMapping("/webhooks/stats")
+    public ResponseEntity<Map<String, Object>> getWebhookStats() {
+        return ResponseEntity.ok(getWebhookService().getStats());
+    }
+
     public ApplicationProperty getApplicationProperty() {
         return applicationProperty;
     }
@@ -127,12 +107,27 @@ public class WebhookController {
         this.applicationProperty = applicationProperty;
     }
 
-    public SignupService getSignupService() {
-        return signupService;
+    public AfpEventHandler getAfpEventHandler() {
+        return afpEventHandler;
+    }
+
+    public void setAfpEventHandler(AfpEventHandler afpEventHandler) {
+        this.afpEventHandler = afpEventHandler;
     }
 
-    public void setSignupService(SignupService signupService) {
-        this.signupService = signupService;
+    public WebhookService getWebhookService() {
+        return webhookService;
     }
 
+    public void setWebhookService(WebhookService webhookService) {
+        this.webhookService = webhookService;
+    }
+
+    public WebhookSignatureValidator getWebhookSignatureValidator() {
+        return webhookSignatureValidator;
+    }
+
+    public void setWebhookSignatureValidator(WebhookSignatureValidator webhookSignatureValidator) {
+        this.webhookSignatureValidator = webhookSignatureValidator;
+    }
 }
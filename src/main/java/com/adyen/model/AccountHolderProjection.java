@@ -0,0 +1,188 @@
+package com.adyen.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Account holder row displayed in the account holders list (account holder and legal entity details).
+ *
+ * Immutable: low-cardinality fields (status, type, country) are interned, and the JSON form is built once
+ * and written as-is when the projection is serialized.
+ */
+@JsonSerialize(using = AccountHolderProjection.Serializer.class)
+public final class AccountHolderProjection {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Map<String, String> INTERNED = new ConcurrentHashMap<>();
+
+    private final String id;
+    private final String reference;
+    private final String description;
+    private final String status;
+    private final String legalEntityId;
+    private final String legalName;
+    private final String type;
+    private final String country;
+
+    private final SerializableString json;
+    private final long contentHash;
+
+    public AccountHolderProjection(String id, String reference, String description, String status,
+                                   String legalEntityId, String legalName, String type, String country) {
+        this.id = id;
+        this.reference = reference;
+        this.description = description;
+        this.status = intern(status);
+        this.legalEntityId = legalEntityId;
+        this.legalName = legalName;
+        this.type = intern(type);
+        this.country = intern(country);
+        this.json = new SerializedString(toJson());
+        // encode once: the UTF-8 bytes are cached by SerializedString
+        this.contentHash = hash(this.json.asUnquotedUTF8());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getAccountHolderId() {
+        return id;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getLegalEntityId() {
+        return legalEntityId;
+    }
+
+    public String getLegalName() {
+        return legalName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    /**
+     * Pre-serialized JSON of the projection (UTF-8)
+     * @return
+     */
+    public byte[] getJsonBytes() {
+        return json.asUnquotedUTF8();
+    }
+
+    /**
+     * 64-bit hash of the JSON form: changes when any field changes (used to build ETags)
+     * @return
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Copy of the projection with the account holder details (ie received via webhook) replaced
+     * @param status
+     * @param description
+     * @param reference
+     * @return
+     */
+    public AccountHolderProjection withAccountHolderDetails(String status, String description, String reference) {
+        return new AccountHolderProjection(id,
+                reference != null ? reference : this.reference,
+                description != null ? description : this.description,
+                status != null ? status : this.status,
+                legalEntityId, legalName, type, country);
+    }
+
+    /**
+     * Approximate size in bytes (used to weigh cache entries)
+     * @return
+     */
+    public int estimateSize() {
+        return 96 + length(id) + length(reference) + length(description) + length(legalEntityId)
+                + length(legalName) + json.charLength() * 2;
+    }
+
+    private String toJson() {
+        StringWriter writer = new StringWriter(256);
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeStringField("id", id);
+            gen.writeStringField("accountHolderId", id);
+            gen.writeStringField("reference", reference);
+            gen.writeStringField("description", description);
+            gen.writeStringField("status", status);
+            gen.writeStringField("legalEntityId", legalEntityId);
+            gen.writeStringField("legalName", legalName);
+            gen.writeStringField("type", type);
+            gen.writeStringField("country", country);
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    // FNV-1a
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = INTERNED.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    /**
+     * Write the pre-serialized JSON as-is
+     */
+    public static class Serializer extends StdSerializer<AccountHolderProjection> {
+
+        public Serializer() {
+            super(AccountHolderProjection.class);
+        }
+
+        @Override
+        public void serialize(AccountHolderProjection value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.adyen.model;
+
+import java.util.List;
+
+/**
+ * Page of transactions, with the cursor to fetch the next page (null on the last page)
+ */
+public class TransactionPage {
+    private List<TransactionItem> content;
+    private String nextCursor;
+
+    public List<TransactionItem> getContent() {
+        return content;
+    }
+
+    public void setContent(List<TransactionItem> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public TransactionPage content(List<TransactionItem> content) {
+        this.content = content;
+        return this;
+    }
+
+    public TransactionPage nextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
+}
@@ -36,6 +36,7 @@ public class AHManagementAPIService {
             apiClient = new Client(
                     applicationProperty.getBclApiKey(),
                     Environment.TEST); // change to LIVE on prod
+            apiClient.setTimeouts(applicationProperty.getApiConnectTimeoutMs(), applicationProperty.getApiReadTimeoutMs());
         }
 
         return apiClient;
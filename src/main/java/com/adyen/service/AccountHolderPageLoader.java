@@ -0,0 +1,180 @@
+package com.adyen.service;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.AccountHolderProjection;
+import com.adyen.model.balanceplatform.AccountHolder;
+import com.adyen.model.legalentitymanagement.LegalEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads a page of account holders (and their legal entities) concurrently.
+ *
+ * Each account holder is fetched on a bounded executor, so a page costs roughly the time
+ * of the slowest item instead of the sum of all calls. The page deadline caps the total wait:
+ * items that are not completed in time are skipped and their tasks interrupted (a call blocked on the network
+ * ends with the API read timeout, see ADYEN_API_READ_TIMEOUT_MS).
+ * Account holders of the same legal entity share its download: the legal entities are cached and concurrent
+ * requests for the same legal entity are coalesced (see {@link LegalEntityManagementAPIService#get(String)}).
+ */
+@Service
+public class AccountHolderPageLoader {
+
+    private final Logger log = LoggerFactory.getLogger(AccountHolderPageLoader.class);
+
+    @Autowired
+    private ConfigurationAPIService configurationAPIService;
+
+    @Autowired
+    private LegalEntityManagementAPIService legalEntityManagementAPIService;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = Math.max(1, getApplicationProperty().getAccountHoldersFetchParallelism());
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "account-holder-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("AccountHolderPageLoader started (parallelism: {}, page deadline: {}ms)",
+                parallelism, getApplicationProperty().getAccountHoldersPageDeadlineMs());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Load the given account holders, keeping the input order.
+     * Account holders which are not found, fail or do not complete before the page deadline are left out
+     * @param accountHolderIds
+     * @return
+     */
+    public List<AccountHolderProjection> load(List<String> accountHolderIds) {
+        // FutureTask (not CompletableFuture): cancel(true) interrupts the task still running past the deadline
+        List<Future<Optional<AccountHolderProjection>>> futures = new ArrayList<>(accountHolderIds.size());
+
+        for (String accountHolderId : accountHolderIds) {
+            futures.add(executor.submit(() -> loadAccountHolder(accountHolderId)));
+        }
+
+        long deadlineMs = getApplicationProperty().getAccountHoldersPageDeadlineMs();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        boolean expired = false;
+
+        List<AccountHolderProjection> results = new ArrayList<>(accountHolderIds.size());
+        for (Future<Optional<AccountHolderProjection>> future : futures) {
+            try {
+                // past the deadline only the completed account holders are taken
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                future.get(remaining, TimeUnit.NANOSECONDS).ifPresent(results::add);
+            } catch (TimeoutException e) {
+                if (!expired) {
+                    log.warn("Page deadline of {}ms exceeded, returning completed account holders only", deadlineMs);
+                    expired = true;
+                }
+                future.cancel(true);
+            } catch (InterruptedException e) {
+                // keep the flag set: the next get fails fast and cancels the remaining tasks
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                // not expected: failures are handled per account holder
+                log.warn("Failed to load account holder: {}", e.getMessage());
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Fetch the account holder and its legal entity, and build the account holder projection
+     * @param accountHolderId
+     * @return
+     */
+    private Optional<AccountHolderProjection> loadAccountHolder(String accountHolderId) {
+        try {
+            var accountHolderOpt = getConfigurationAPIService().getAccountHolder(accountHolderId);
+            if (accountHolderOpt.isEmpty()) {
+                return Optional.empty();
+            }
+
+            AccountHolder accountHolder = accountHolderOpt.get();
+            String legalEntityId = null;
+            String legalName = null;
+            String type = null;
+            String country = null;
+
+            if (accountHolder.getLegalEntityId() != null) {
+                try {
+                    LegalEntity legalEntity = getLegalEntityManagementAPIService().get(accountHolder.getLegalEntityId());
+                    legalEntityId = legalEntity.getId();
+                    legalName = legalEntity.getIndividual() != null ?
+                            legalEntity.getIndividual().getName().getFirstName() + " " + legalEntity.getIndividual().getName().getLastName() :
+                            legalEntity.getOrganization() != null ? legalEntity.getOrganization().getLegalName() :
+                                    legalEntity.getSoleProprietorship() != null ? legalEntity.getSoleProprietorship().getName() : null;
+                    type = legalEntity.getType() != null ? legalEntity.getType().getValue() : null;
+                    country = legalEntity.getIndividual() != null && legalEntity.getIndividual().getResidentialAddress() != null ?
+                            legalEntity.getIndividual().getResidentialAddress().getCountry() :
+                            legalEntity.getOrganization() != null && legalEntity.getOrganization().getRegisteredAddress() != null ?
+                                    legalEntity.getOrganization().getRegisteredAddress().getCountry() : null;
+                } catch (Exception e) {
+                    log.warn("Failed to fetch legal entity {} for account holder {}: {}",
+                            accountHolder.getLegalEntityId(), accountHolderId, e.getMessage());
+                }
+            }
+
+            return Optional.of(new AccountHolderProjection(
+                    accountHolder.getId(),
+                    accountHolder.getReference(),
+                    accountHolder.getDescription(),
+                    accountHolder.getStatus() != null ? accountHolder.getStatus().getValue() : null,
+                    legalEntityId, legalName, type, country));
+        } catch (Exception e) {
+            log.warn("Failed to fetch account holder {}: {}", accountHolderId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public ConfigurationAPIService getConfigurationAPIService() {
+        return configurationAPIService;
+    }
+
+    public void setConfigurationAPIService(ConfigurationAPIService configurationAPIService) {
+        this.configurationAPIService = configurationAPIService;
+    }
+
+    public LegalEntityManagementAPIService getLegalEntityManagementAPIService() {
+        return legalEntityManagementAPIService;
+    }
+
+    public void setLegalEntityManagementAPIService(LegalEntityManagementAPIService legalEntityManagementAPIService) {
+        this.legalEntityManagementAPIService = legalEntityManagementAPIService;
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+}
@@ -0,0 +1,196 @@
+package com.adyen.service;
+
+import com.adyen.cache.AccountHolderCache;
+import com.adyen.cache.CacheSnapshotService;
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.AccountHolderProjection;
+import com.adyen.util.RateLimiter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preload all account holders (and their legal entities) in the cache at startup, so the first users
+ * do not pay the cost of the cold fetch.
+ *
+ * Account holders are loaded concurrently in batches (see {@link AccountHolderPageLoader}), while the
+ * number of Adyen API calls per second stays within the configured rate.
+ * The application is not ready until the warm-up is completed or the warm-up timeout has passed,
+ * unless the cache has been restored from a snapshot: in this case the restored data is served while the warm-up runs.
+ */
+@Service
+public class CacheWarmupService {
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    // API calls performed for each account holder: get account holder, get legal entity
+    private static final int CALLS_PER_ACCOUNT_HOLDER = 2;
+
+    public enum WarmupState {
+        DISABLED,
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private AccountHolderRegistry accountHolderRegistry;
+
+    @Autowired
+    private AccountHolderPageLoader accountHolderPageLoader;
+
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
+    @Autowired
+    private CacheSnapshotService cacheSnapshotService;
+
+    private volatile WarmupState state = WarmupState.DISABLED;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private volatile int total;
+    private volatile long startedAt;
+    private volatile long durationMs;
+
+    @PostConstruct
+    public void init() {
+        if (getApplicationProperty().isCacheWarmupEnabled()) {
+            state = WarmupState.PENDING;
+        } else {
+            done.countDown();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (state != WarmupState.PENDING) {
+            return;
+        }
+
+        Thread thread = new Thread(this::warmup, "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Load all account holders in the cache
+     */
+    void warmup() {
+        List<String> accountHolderIds = getAccountHolderRegistry().getAccountHolderIds();
+        int batchSize = Math.max(1, getApplicationProperty().getAccountHoldersFetchParallelism());
+        RateLimiter rateLimiter = new RateLimiter(getApplicationProperty().getCacheWarmupRatePerSecond());
+
+        total = accountHolderIds.size();
+        startedAt = System.currentTimeMillis();
+        state = WarmupState.RUNNING;
+        log.info("Cache warm-up started ({} account holders, {} calls/s)", total, getApplicationProperty().getCacheWarmupRatePerSecond());
+
+        try {
+            for (int from = 0; from < accountHolderIds.size(); from += batchSize) {
+                List<String> batch = accountHolderIds.subList(from, Math.min(from + batchSize, accountHolderIds.size()));
+                rateLimiter.acquire(batch.size() * CALLS_PER_ACCOUNT_HOLDER);
+
+                for (AccountHolderProjection accountHolder : getAccountHolderPageLoader().load(batch)) {
+                    getAccountHolderCache().putAccountHolder(accountHolder);
+                    loaded.incrementAndGet();
+                }
+                processed.addAndGet(batch.size());
+            }
+            state = WarmupState.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = WarmupState.FAILED;
+        } catch (Exception e) {
+            log.error("Cache warm-up failed", e);
+            state = WarmupState.FAILED;
+        } finally {
+            durationMs = System.currentTimeMillis() - startedAt;
+            done.countDown();
+        }
+
+        log.info("Cache warm-up {} in {}ms ({} of {} account holders loaded)", state, durationMs, loaded.get(), total);
+    }
+
+    /**
+     * Whether the warm-up no longer holds back readiness: it is disabled, finished, has exceeded the timeout
+     * or the cache has been restored from a snapshot
+     * @return
+     */
+    public boolean isReady() {
+        if (done.getCount() == 0 || getCacheSnapshotService().getRestoredEntries() > 0) {
+            return true;
+        }
+        return startedAt > 0 && System.currentTimeMillis() - startedAt > getApplicationProperty().getCacheWarmupTimeoutMs();
+    }
+
+    /**
+     * Warm-up progress and duration
+     * @return
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("ready", isReady());
+        status.put("total", total);
+        status.put("processed", processed.get());
+        status.put("loaded", loaded.get());
+        status.put("durationMs", done.getCount() == 0 ? durationMs :
+                startedAt > 0 ? System.currentTimeMillis() - startedAt : 0);
+        return status;
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+
+    public AccountHolderRegistry getAccountHolderRegistry() {
+        return accountHolderRegistry;
+    }
+
+    public void setAccountHolderRegistry(AccountHolderRegistry accountHolderRegistry) {
+        this.accountHolderRegistry = accountHolderRegistry;
+    }
+
+    public AccountHolderPageLoader getAccountHolderPageLoader() {
+        return accountHolderPageLoader;
+    }
+
+    public void setAccountHolderPageLoader(AccountHolderPageLoader accountHolderPageLoader) {
+        this.accountHolderPageLoader = accountHolderPageLoader;
+    }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
+
+    public CacheSnapshotService getCacheSnapshotService() {
+        return cacheSnapshotService;
+    }
+
+    public void setCacheSnapshotService(CacheSnapshotService cacheSnapshotService) {
+        this.cacheSnapshotService = cacheSnapshotService;
+    }
+}
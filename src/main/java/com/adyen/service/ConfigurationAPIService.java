@@ -1,11 +1,14 @@
 package com.adyen.service;
 
 import com.adyen.Client;
+import com.adyen.cache.RequestCoalescer;
 import com.adyen.config.ApplicationProperty;
 import com.adyen.enums.Environment;
 import com.adyen.model.AccountHolderStatus;
 import com.adyen.model.TransactionItem;
+import com.adyen.model.TransactionPage;
 import com.adyen.model.balanceplatform.*;
+import com.adyen.model.transfers.Transaction;
 import com.adyen.model.transfers.TransactionSearchResponse;
 import com.adyen.service.balanceplatform.AccountHoldersApi;
 import com.adyen.service.balanceplatform.BalanceAccountsApi;
@@ -16,13 +19,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Wraps the Adyen Configuration API: accountHolders, balanceAccounts, etc..
@@ -35,6 +45,9 @@ public class ConfigurationAPIService {
 
     private final Logger log = LoggerFactory.getLogger(ConfigurationAPIService.class);
 
+    // max page size of the Transactions API
+    private static final int TRANSACTIONS_PAGE_LIMIT = 100;
+
     private Client apiClient = null;
 
     @Autowired
@@ -43,18 +56,29 @@ public class ConfigurationAPIService {
     @Autowired
     private TransactionHandler transactionHandler;
 
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    /**
+     * Get the AccountHolder
+     * Concurrent requests for the same AccountHolder share a single API call
+     * @param accountHolderId
+     * @return
+     */
     public Optional<AccountHolder> getAccountHolder(String accountHolderId) {
 
-        Optional<AccountHolder> accountHolder = Optional.empty();
+        return getRequestCoalescer().execute("accountHolder", accountHolderId, () -> {
+            Optional<AccountHolder> accountHolder = Optional.empty();
 
-        try {
-            accountHolder = Optional.of(getAccountHoldersApi().getAccountHolder(accountHolderId));
-            log.info(accountHolder.toString());
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-        }
+            try {
+                accountHolder = Optional.of(getAccountHoldersApi().getAccountHolder(accountHolderId));
+                log.info(accountHolder.toString());
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
 
-        return accountHolder;
+            return accountHolder;
+        });
     }
 
     /**
@@ -140,35 +164,133 @@ public class ConfigurationAPIService {
     }
 
     /**
-     * Get all transactions for the user (accountHolder)
+     * Get all transactions for the user (accountHolder), reading all pages
+     * Concurrent requests for the same AccountHolder share a single API call
      * @param accountHolderId
      * @return
      */
     public List<TransactionItem> getTransactions(String accountHolderId) {
 
-        List<TransactionItem> transactionItems = null;
+        return getRequestCoalescer().execute("transactions", accountHolderId, () -> {
+            List<TransactionItem> transactionItems = new ArrayList<>();
+            forEachTransactionPage(accountHolderId, transactionItems::addAll);
+            return transactionItems;
+        });
 
-        try {
+    }
+
+    /**
+     * Read the transactions of the last 180 days (API limit) page by page, following the cursor of each page:
+     * the pages are passed to the consumer as they arrive
+     * @param accountHolderId
+     * @param pageConsumer
+     */
+    public void forEachTransactionPage(String accountHolderId, Consumer<List<TransactionItem>> pageConsumer) {
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            TransactionPage page = getTransactionsPage(accountHolderId, cursor, TRANSACTIONS_PAGE_LIMIT);
+            pageConsumer.accept(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        log.info("Read {} pages of transactions for account holder {}", pages, accountHolderId);
+    }
 
-            // in the last 6 months (180 days) - API limit
-            OffsetDateTime createdSince = OffsetDateTime.now().minus(180, ChronoUnit.DAYS);
-            // until today
-            OffsetDateTime createdUntil = OffsetDateTime.now();
-            // max number of transactions to fetch
-            Integer limit = 100;
+    /**
+     * Read the transactions created in the time window page by page, following the cursor of each page
+     * @param accountHolderId
+     * @param createdSince
+     * @param createdUntil
+     * @param cursor API cursor to resume from, or null to start at the first page
+     * @param pageConsumer receives the transactions of each page and the API cursor of the next page (null after the last page)
+     */
+    public void forEachTransactionPage(String accountHolderId, OffsetDateTime createdSince, OffsetDateTime createdUntil,
+                                       String cursor, BiConsumer<List<Transaction>, String> pageConsumer) {
+        do {
+            TransactionSearchResponse transactionSearchResponse =
+                    searchTransactions(accountHolderId, createdSince, createdUntil, cursor, TRANSACTIONS_PAGE_LIMIT);
+            cursor = getNextCursor(transactionSearchResponse);
+            pageConsumer.accept(transactionSearchResponse.getData() != null ? transactionSearchResponse.getData() : List.of(), cursor);
+        } while (cursor != null);
+    }
 
-            TransactionSearchResponse transactionSearchResponse = getTransactionsApi().getAllTransactions(
-                    null, null, accountHolderId, null,
-                null, createdSince, createdUntil, limit, null);
+    /**
+     * Get a page of transactions of the last 180 days (API limit)
+     * @param accountHolderId
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param limit max number of transactions in the page (max 100)
+     * @return the transactions and the cursor of the next page
+     */
+    public TransactionPage getTransactionsPage(String accountHolderId, String cursor, int limit) {
+        // the cursor keeps the time window of the first page, so all pages cover the same transactions
+        TransactionCursor position = cursor != null ? TransactionCursor.decode(cursor) :
+                new TransactionCursor(OffsetDateTime.now().minus(180, ChronoUnit.DAYS), OffsetDateTime.now(), null);
+
+        TransactionSearchResponse transactionSearchResponse = searchTransactions(accountHolderId,
+                position.createdSince(), position.createdUntil(), position.apiCursor(), Math.min(limit, TRANSACTIONS_PAGE_LIMIT));
+
+        List<TransactionItem> transactionItems = transactionSearchResponse.getData() != null ?
+                getTransactionHandler().getTransactionItems(transactionSearchResponse.getData()) : new ArrayList<>();
+
+        String nextApiCursor = getNextCursor(transactionSearchResponse);
+        return new TransactionPage()
+                .content(transactionItems)
+                .nextCursor(nextApiCursor != null ?
+                        new TransactionCursor(position.createdSince(), position.createdUntil(), nextApiCursor).encode() : null);
+    }
 
-            transactionItems = getTransactionHandler().getTransactionItems(transactionSearchResponse.getData());
+    private TransactionSearchResponse searchTransactions(String accountHolderId, OffsetDateTime createdSince,
+                                                         OffsetDateTime createdUntil, String cursor, int limit) {
+        try {
+            return getTransactionsApi().getAllTransactions(
+                    null, null, accountHolderId, null,
+                    cursor, createdSince, createdUntil, limit, null);
         } catch (Exception e) {
             log.error(e.toString(), e);
             throw new RuntimeException("Cannot get transactions: " + e.getMessage());
         }
+    }
+
+    /**
+     * Cursor of the next page, taken from the href of the 'next' link (null on the last page)
+     * @param transactionSearchResponse
+     * @return
+     */
+    private String getNextCursor(TransactionSearchResponse transactionSearchResponse) {
+        if (transactionSearchResponse.getLinks() == null || transactionSearchResponse.getLinks().getNext() == null
+                || transactionSearchResponse.getLinks().getNext().getHref() == null) {
+            return null;
+        }
 
-        return transactionItems;
+        String cursor = UriComponentsBuilder.fromUriString(transactionSearchResponse.getLinks().getNext().getHref())
+                .build()
+                .getQueryParams()
+                .getFirst("cursor");
+        return cursor != null ? URLDecoder.decode(cursor, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Position in the transactions: time window and cursor of the API
+     * Encoded as an opaque (base64) string returned to the clients
+     */
+    record TransactionCursor(OffsetDateTime createdSince, OffsetDateTime createdUntil, String apiCursor) {
+
+        String encode() {
+            String value = createdSince + "|" + createdUntil + "|" + apiCursor;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
 
+        static TransactionCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+                return new TransactionCursor(OffsetDateTime.parse(parts[0]), OffsetDateTime.parse(parts[1]), parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
     }
 
     /**
@@ -219,6 +341,7 @@ public class ConfigurationAPIService {
             apiClient = new Client(
                     applicationProperty.getBclApiKey(),
                     Environment.TEST); // change to LIVE on prod
+            apiClient.setTimeouts(applicationProperty.getApiConnectTimeoutMs(), applicationProperty.getApiReadTimeoutMs());
         }
 
         return apiClient;
@@ -239,4 +362,12 @@ public class ConfigurationAPIService {
     public void setTransactionHandler(TransactionHandler transactionHandler) {
         this.transactionHandler = transactionHandler;
     }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
 }
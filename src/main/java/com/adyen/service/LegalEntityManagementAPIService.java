@@ -1,6 +1,8 @@
 package com.adyen.service;
 
 import com.adyen.Client;
+import com.adyen.cache.BoundedCache;
+import com.adyen.cache.RequestCoalescer;
 import com.adyen.config.ApplicationProperty;
 import com.adyen.enums.Environment;
 import com.adyen.model.IndividualSignup;
@@ -13,8 +15,10 @@ import com.adyen.service.legalentitymanagement.LegalEntitiesApi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,6 +27,9 @@ import java.util.Optional;
  * Wraps the Adyen Legal Entity Management API: legalEntities, transferInstruments, hostedOnboarding, etc..
  * It requires the BalancePlatform API key
  *
+ * Legal entities are cached (read-through, bounded, with a TTL) and the cache is shared by all callers:
+ * use {@link #invalidate(String)} when a legal entity is known to have changed.
+ *
  * https://docs.adyen.com/api-explorer/legalentity/
  */
 @Service
@@ -35,20 +42,70 @@ public class LegalEntityManagementAPIService {
     @Autowired
     private ApplicationProperty applicationProperty;
 
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    // legal entities are nested objects: flat size estimate per legal entity
+    private static final int LEGAL_ENTITY_WEIGHT = 4096;
+
+    private BoundedCache<String, LegalEntity> legalEntityCache;
+
+    @PostConstruct
+    public void init() {
+        legalEntityCache = new BoundedCache<>("legalEntities",
+                getApplicationProperty().getLegalEntitiesCacheMaxBytes(),
+                Duration.ofMillis(getApplicationProperty().getLegalEntitiesCacheTtlMs()),
+                legalEntity -> LEGAL_ENTITY_WEIGHT);
+    }
+
+    /**
+     * Get the LegalEntity
+     * Cached LegalEntities are returned without calling the API, and concurrent requests for the same
+     * LegalEntity share a single API call (ie account holders of a page pointing to the same legal entity)
+     * @param id
+     * @return
+     */
     public LegalEntity get(String id) {
-        LegalEntity legalEntity = null;
 
-        try {
+        Optional<LegalEntity> cached = legalEntityCache.get(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
 
-            legalEntity = getLegalEntitiesApi().getLegalEntity(id);
-            log.info(legalEntity.toString());
+        return getRequestCoalescer().execute("legalEntity", id, () -> {
+            LegalEntity legalEntity = null;
 
-        } catch (Exception e) {
-            log.error(e.toString(), e);
-            throw new RuntimeException("Cannot get LegalEntity: " + e.getMessage());
+            try {
+
+                legalEntity = getLegalEntitiesApi().getLegalEntity(id);
+                log.info(legalEntity.toString());
+
+            } catch (Exception e) {
+                log.error(e.toString(), e);
+                throw new RuntimeException("Cannot get LegalEntity: " + e.getMessage());
+            }
+
+            legalEntityCache.put(id, legalEntity);
+            return legalEntity;
+        });
+    }
+
+    /**
+     * Remove the LegalEntity from the cache: the next get() fetches it again
+     * @param id
+     */
+    public void invalidate(String id) {
+        if (id != null) {
+            legalEntityCache.invalidate(id);
         }
+    }
 
-        return legalEntity;
+    /**
+     * Stats of the LegalEntity cache
+     * @return
+     */
+    public Map<String, Object> getCacheStats() {
+        return legalEntityCache.getStats();
     }
 
     public LegalEntity create(IndividualSignup individualSignup) {
@@ -130,6 +187,27 @@ public class LegalEntityManagementAPIService {
         return legalEntity;
     }
 
+    /**
+     * Find the payment processing BusinessLine of the LegalEntity
+     * @param legalEntityId
+     * @return the BusinessLine, or empty when the LegalEntity has none
+     */
+    public Optional<BusinessLine> findBusinessLine(String legalEntityId) {
+        try {
+            BusinessLines businessLines = getLegalEntitiesApi().getAllBusinessLinesUnderLegalEntity(legalEntityId);
+            if (businessLines == null || businessLines.getBusinessLines() == null) {
+                return Optional.empty();
+            }
+            return businessLines.getBusinessLines().stream()
+                    .filter(businessLine -> businessLine.getService() != null && BusinessLineInfo.ServiceEnum.PAYMENTPROCESSING
+                            .getValue().equalsIgnoreCase(businessLine.getService().getValue()))
+                    .findFirst();
+        } catch (Exception e) {
+            log.error(e.toString(), e);
+            throw new RuntimeException("Cannot get BusinessLines: " + e.getMessage());
+        }
+    }
+
     /**
      * Create BusinessLine
      * @param legalEntityId
@@ -151,6 +229,8 @@ public class LegalEntityManagementAPIService {
 
             businessLine = getBusinessLinesApi().createBusinessLine(businessLineInfo);
             log.info("BusinessLine created id:{}, legalEntityId:{}", businessLine.getId(), businessLine.getLegalEntityId());
+            // the legal entity now has a new business line
+            invalidate(legalEntityId);
 
         } catch (Exception e) {
             log.error(e.toString(), e);
@@ -229,6 +309,7 @@ public class LegalEntityManagementAPIService {
             apiClient = new Client(
                     applicationProperty.getLemApiKey(),
                     Environment.TEST); // change to LIVE on prod
+            apiClient.setTimeouts(applicationProperty.getApiConnectTimeoutMs(), applicationProperty.getApiReadTimeoutMs());
         }
 
         return apiClient;
@@ -242,4 +323,11 @@ public class LegalEntityManagementAPIService {
         this.applicationProperty = applicationProperty;
     }
 
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Wraps the Adyen Management API: manage stores and other configuration settings
@@ -34,9 +35,38 @@ public class ManagementAPIService {
     @Autowired
     private AddressHandler addressHandler;
 
+    // page size when listing the stores of the merchant account
+    private static final int STORES_PAGE_SIZE = 100;
+
+    /**
+     * Find the Store of the BusinessLine
+     * @param businessLineId
+     * @return the Store, or empty when the BusinessLine has none
+     */
+    public Optional<Store> findStore(String businessLineId) {
+        try {
+            for (int pageNumber = 1; ; pageNumber++) {
+                ListStoresResponse response = getAccountStoreLevelApi().listStoresByMerchantId(
+                        getApplicationProperty().getMerchantAccount(), pageNumber, STORES_PAGE_SIZE, null);
+                if (response == null || response.getData() == null || response.getData().isEmpty()) {
+                    return Optional.empty();
+                }
+                Optional<Store> store = response.getData().stream()
+                        .filter(s -> s.getBusinessLineIds() != null && s.getBusinessLineIds().contains(businessLineId))
+                        .findFirst();
+                if (store.isPresent() || response.getData().size() < STORES_PAGE_SIZE) {
+                    return store;
+                }
+            }
+        } catch (Exception e) {
+            log.error(e.toString(), e);
+            throw new RuntimeException("Cannot get Stores: " + e.getMessage());
+        }
+    }
+
     /**
      * Create Store to route the payments through.
-     * Create and assign a default SplitConfiguration to the store
+     * Create and assign a default SplitConfiguration to the store (the existing one is reused)
      * @param storeConfiguration
      * @return
      */
@@ -45,8 +75,11 @@ public class ManagementAPIService {
 
         try {
 
-            SplitConfiguration splitConfiguration = createSplitConfiguration(
-                    getApplicationProperty().getMerchantAccount(), getDefaultSplitConfiguration());
+            SplitConfiguration defaultSplitConfiguration = getDefaultSplitConfiguration();
+            SplitConfiguration splitConfiguration = findSplitConfiguration(
+                    getApplicationProperty().getMerchantAccount(), defaultSplitConfiguration.getDescription())
+                    .orElseGet(() -> createSplitConfiguration(
+                            getApplicationProperty().getMerchantAccount(), defaultSplitConfiguration));
 
             StoreCreationWithMerchantCodeRequest storeCreationWithMerchantCodeRequest = new StoreCreationWithMerchantCodeRequest()
                     .merchantId(getApplicationProperty().getMerchantAccount())
@@ -95,6 +128,27 @@ public class ManagementAPIService {
                 ));
     }
 
+    /**
+     * Find the SplitConfiguration of the merchant account with the given description
+     * @param merchantAccount
+     * @param description
+     * @return
+     */
+    public Optional<SplitConfiguration> findSplitConfiguration(String merchantAccount, String description) {
+        try {
+            SplitConfigurationList splitConfigurations = splitConfigurationMerchantLevelApi().listSplitConfigurations(merchantAccount);
+            if (splitConfigurations == null || splitConfigurations.getData() == null) {
+                return Optional.empty();
+            }
+            return splitConfigurations.getData().stream()
+                    .filter(splitConfiguration -> description.equals(splitConfiguration.getDescription()))
+                    .findFirst();
+        } catch (Exception e) {
+            log.error(e.toString(), e);
+            throw new RuntimeException("Cannot get SplitConfigurations: " + e.getMessage());
+        }
+    }
+
     /**
      * Create a SplitConfiguration
      * @param merchantAccount
@@ -136,6 +190,7 @@ public class ManagementAPIService {
             apiClient = new Client(
                     applicationProperty.getApiKey(),
                     Environment.TEST); // change to LIVE on prod
+            apiClient.setTimeouts(applicationProperty.getApiConnectTimeoutMs(), applicationProperty.getApiReadTimeoutMs());
         }
 
         return apiClient;
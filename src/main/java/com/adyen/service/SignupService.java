@@ -79,7 +79,8 @@ public class SignupService {
      * Complete the signup after AccountHolder onboarding is completed
      *
      * This is triggered when the webhook event `balancePlatform.accountHolder.updated`
-     * is received
+     * is received. The event can be processed several times (retries, every later update of the AccountHolder):
+     * the BusinessLine and the Store are only created when they do not exist yet
      * @param accountHolderId
      */
     public void completeSignup(String accountHolderId) {
@@ -98,8 +99,15 @@ public class SignupService {
             // Onboarding is completed and AccountHolder status is now valid
             LegalEntity legalEntity = getLegalEntityManagementAPIService().get(accountHolder.getLegalEntityId());
 
-            // create Business Line
-            BusinessLine businessLine = getLegalEntityManagementAPIService().createBusinessLine(legalEntity.getId());
+            // create Business Line, unless created by a previous run
+            BusinessLine businessLine = getLegalEntityManagementAPIService().findBusinessLine(legalEntity.getId())
+                    .orElseGet(() -> getLegalEntityManagementAPIService().createBusinessLine(legalEntity.getId()));
+
+            Optional<Store> existingStore = getManagementAPIService().findStore(businessLine.getId());
+            if (existingStore.isPresent()) {
+                log.info("Signup already completed for legalEntityId:{} (store:{})", legalEntity.getId(), existingStore.get().getId());
+                return;
+            }
 
             Address address = null;
 
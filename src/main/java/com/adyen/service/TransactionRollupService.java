@@ -0,0 +1,134 @@
+package com.adyen.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * Incoming and outgoing totals of the transactions per account holder, currency, day and month (UTC).
+ *
+ * The totals are updated as the transactions are ingested (see {@link TransactionSyncService}): each bucket holds
+ * primitive long counters, so reading a summary only depends on the number of buckets, not on the number of transactions.
+ * When a transaction is ingested again (ie updated amount) its previous values are subtracted first.
+ */
+@Service
+public class TransactionRollupService {
+
+    // counters of a bucket
+    private static final int INCOMING_TOTAL = 0;
+    private static final int INCOMING_COUNT = 1;
+    private static final int OUTGOING_TOTAL = 2;
+    private static final int OUTGOING_COUNT = 3;
+
+    private final Map<String, AccountHolderRollup> rollups = new ConcurrentHashMap<>();
+
+    /**
+     * Add a transaction to the totals
+     * @param accountHolderId
+     * @param currency
+     * @param createdAt epoch millis of the transaction creation
+     * @param value amount in minor units (negative when outgoing)
+     */
+    public void add(String accountHolderId, String currency, long createdAt, long value) {
+        rollups.computeIfAbsent(accountHolderId, id -> new AccountHolderRollup()).update(currency, createdAt, value, 1);
+    }
+
+    /**
+     * Remove a transaction from the totals (ie before adding its updated version)
+     * @param accountHolderId
+     * @param currency
+     * @param createdAt
+     * @param value
+     */
+    public void remove(String accountHolderId, String currency, long createdAt, long value) {
+        rollups.computeIfAbsent(accountHolderId, id -> new AccountHolderRollup()).update(currency, createdAt, value, -1);
+    }
+
+    /**
+     * Drop the totals of the account holder (ie its ledger has been evicted: the next sync adds all its transactions again)
+     * @param accountHolderId
+     */
+    public void clear(String accountHolderId) {
+        rollups.remove(accountHolderId);
+    }
+
+    /**
+     * Daily and monthly totals of the account holder, by currency
+     * @param accountHolderId
+     * @return
+     */
+    public Map<String, Object> getSummary(String accountHolderId) {
+        AccountHolderRollup rollup = rollups.get(accountHolderId);
+        return rollup != null ? rollup.toSummary() : new LinkedHashMap<>();
+    }
+
+    /**
+     * Totals of the account holder: buckets by day (epoch day) and month (ie 202405), by currency
+     */
+    private static class AccountHolderRollup {
+
+        private final Map<String, TreeMap<Long, long[]>> daily = new HashMap<>();
+        private final Map<String, TreeMap<Long, long[]>> monthly = new HashMap<>();
+
+        synchronized void update(String currency, long createdAt, long value, int sign) {
+            if (currency == null || value == 0) {
+                return;
+            }
+            LocalDate day = Instant.ofEpochMilli(createdAt).atZone(ZoneOffset.UTC).toLocalDate();
+            update(daily, currency, day.toEpochDay(), value, sign);
+            update(monthly, currency, day.getYear() * 100L + day.getMonthValue(), value, sign);
+        }
+
+        private void update(Map<String, TreeMap<Long, long[]>> buckets, String currency, long bucket, long value, int sign) {
+            long[] counters = buckets.computeIfAbsent(currency, c -> new TreeMap<>()).computeIfAbsent(bucket, b -> new long[4]);
+            if (value > 0) {
+                counters[INCOMING_TOTAL] += sign * value;
+                counters[INCOMING_COUNT] += sign;
+            } else {
+                counters[OUTGOING_TOTAL] += sign * -value;
+                counters[OUTGOING_COUNT] += sign;
+            }
+        }
+
+        synchronized Map<String, Object> toSummary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            for (String currency : daily.keySet()) {
+                Map<String, Object> currencySummary = new LinkedHashMap<>();
+                currencySummary.put("daily", toList(daily.get(currency), bucket -> LocalDate.ofEpochDay(bucket).toString()));
+                currencySummary.put("monthly", toList(monthly.get(currency),
+                        bucket -> YearMonth.of((int) (bucket / 100), (int) (bucket % 100)).toString()));
+                summary.put(currency, currencySummary);
+            }
+            return summary;
+        }
+
+        private List<Map<String, Object>> toList(TreeMap<Long, long[]> buckets, LongFunction<String> period) {
+            List<Map<String, Object>> list = new ArrayList<>(buckets.size());
+            for (Map.Entry<Long, long[]> bucket : buckets.entrySet()) {
+                long[] counters = bucket.getValue();
+                if (counters[INCOMING_COUNT] == 0 && counters[OUTGOING_COUNT] == 0) {
+                    continue;
+                }
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("period", period.apply(bucket.getKey()));
+                item.put("incoming", counters[INCOMING_TOTAL]);
+                item.put("incomingCount", counters[INCOMING_COUNT]);
+                item.put("outgoing", counters[OUTGOING_TOTAL]);
+                item.put("outgoingCount", counters[OUTGOING_COUNT]);
+                list.add(item);
+            }
+            return list;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.adyen.service;
+
+import com.adyen.cache.TransactionColumns;
+import com.adyen.cache.TransactionLedger;
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.TransactionItem;
+import com.adyen.util.TransactionHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Search the transactions of all known account holders, by transaction id or amount.
+ *
+ * Account holders with a synced ledger are searched first, in memory. The others are synced (see
+ * {@link TransactionSyncService#sync(String)}) on a bounded executor, so the Transactions API gets at most
+ * TRANSACTIONS_SEARCH_PARALLELISM concurrent calls, and searched as each sync completes.
+ * Matches are passed to the consumer as soon as they are found, always from the calling thread.
+ * A search by transaction id stops at the first match.
+ */
+@Service
+public class TransactionSearchService {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionSearchService.class);
+
+    @Autowired
+    private AccountHolderRegistry accountHolderRegistry;
+
+    @Autowired
+    private TransactionSyncService transactionSyncService;
+
+    @Autowired
+    private TransactionHandler transactionHandler;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = Math.max(1, getApplicationProperty().getTransactionsSearchParallelism());
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "transaction-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("TransactionSearchService started (parallelism: {}, deadline: {}ms)",
+                parallelism, getApplicationProperty().getTransactionsSearchDeadlineMs());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Search the transactions of all known account holders
+     * @param transactionId id of the transaction, or null for all
+     * @param amount        amount in minor units, incoming or outgoing (ie 1000 matches EUR 10.00 and EUR -10.00), or null for all
+     * @param currency      currency code, or null for all
+     * @param consumer      receives the matches as they are found
+     * @return number of account holders searched
+     */
+    public int search(String transactionId, Long amount, String currency, Consumer<Match> consumer) {
+        if (transactionId == null && amount == null) {
+            throw new IllegalArgumentException("Transaction id or amount is required");
+        }
+
+        long deadline = System.currentTimeMillis() + getApplicationProperty().getTransactionsSearchDeadlineMs();
+        int searched = 0;
+
+        // synced ledgers first: no API call
+        List<String> notSynced = new ArrayList<>();
+        for (String accountHolderId : getAccountHolderRegistry().getAccountHolderIds()) {
+            // looked up only: a ledger is created by the sync, not for every registered account holder
+            Optional<TransactionLedger> ledger = getTransactionSyncService().findLedger(accountHolderId);
+            if (ledger.isEmpty() || ledger.get().getHighWaterMark() == null) {
+                notSynced.add(accountHolderId);
+                continue;
+            }
+            searched++;
+            if (emit(search(accountHolderId, ledger.get(), transactionId, amount, currency), consumer) && transactionId != null) {
+                return searched;
+            }
+        }
+
+        CompletionService<List<Match>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<List<Match>>> futures = new ArrayList<>(notSynced.size());
+        for (String accountHolderId : notSynced) {
+            futures.add(completionService.submit(() -> {
+                getTransactionSyncService().sync(accountHolderId);
+                // evicted since the sync: nothing to search
+                return getTransactionSyncService().findLedger(accountHolderId)
+                        .map(ledger -> search(accountHolderId, ledger, transactionId, amount, currency))
+                        .orElse(List.of());
+            }));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<List<Match>> future = completionService.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    log.warn("Transaction search deadline exceeded, {} account holders not searched", futures.size() - i);
+                    break;
+                }
+                try {
+                    searched++;
+                    if (emit(future.get(), consumer) && transactionId != null) {
+                        break;
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Cannot search transactions of an account holder: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        return searched;
+    }
+
+    private List<Match> search(String accountHolderId, TransactionLedger ledger, String transactionId, Long amount, String currency) {
+        TransactionColumns columns = ledger.getColumns();
+        List<Match> matches = new ArrayList<>();
+
+        // an amount matches incoming and outgoing transactions
+        long[] values = amount == null || amount == 0 ? new long[]{0} : new long[]{amount, -amount};
+        for (long value : values) {
+            TransactionColumns.Filter filter = new TransactionColumns.Filter(Long.MIN_VALUE, Long.MAX_VALUE,
+                    amount != null ? value : Long.MIN_VALUE, amount != null ? value : Long.MAX_VALUE,
+                    null, null, currency, transactionId);
+            TransactionColumns.QueryResult result = columns.query(filter, TransactionColumns.SORT_CREATED, true, 0, Integer.MAX_VALUE);
+            for (int row : result.rows()) {
+                matches.add(new Match(accountHolderId, columns.getTransactionItem(row, getTransactionHandler())));
+            }
+        }
+        return matches;
+    }
+
+    private boolean emit(List<Match> matches, Consumer<Match> consumer) {
+        matches.forEach(consumer);
+        return !matches.isEmpty();
+    }
+
+    /**
+     * Transaction matching a search
+     * @param accountHolderId
+     * @param transaction
+     */
+    public record Match(String accountHolderId, TransactionItem transaction) {
+    }
+
+    public AccountHolderRegistry getAccountHolderRegistry() {
+        return accountHolderRegistry;
+    }
+
+    public void setAccountHolderRegistry(AccountHolderRegistry accountHolderRegistry) {
+        this.accountHolderRegistry = accountHolderRegistry;
+    }
+
+    public TransactionSyncService getTransactionSyncService() {
+        return transactionSyncService;
+    }
+
+    public void setTransactionSyncService(TransactionSyncService transactionSyncService) {
+        this.transactionSyncService = transactionSyncService;
+    }
+
+    public TransactionHandler getTransactionHandler() {
+        return transactionHandler;
+    }
+
+    public void setTransactionHandler(TransactionHandler transactionHandler) {
+        this.transactionHandler = transactionHandler;
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+}
@@ -0,0 +1,316 @@
+package com.adyen.service;
+
+import com.adyen.cache.AccountHolderCache;
+import com.adyen.cache.BoundedCache;
+import com.adyen.cache.RequestCoalescer;
+import com.adyen.cache.TransactionLedger;
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.TransactionItem;
+import com.adyen.model.transfers.Transaction;
+import com.adyen.store.TransactionStore;
+import com.adyen.util.TransactionHandler;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keep a local ledger of the transactions of each account holder, synced incrementally with the Transactions API.
+ *
+ * The first sync reads the whole 180-day window, the next ones only read the transactions created since the
+ * high-water mark of the previous sync (with a small overlap for transactions created late). When a sync fails
+ * after some pages, the next one resumes from the cursor of the last page read.
+ * Reads are served from the ledger, synced at most once per sync interval.
+ * Transactions can also be pushed by the transaction webhooks (see {@link #ingest(String, List)}): the periodic sync
+ * is then a reconciliation with the Transactions API.
+ * The transactions received are also written to the {@link TransactionStore} (when enabled) and added to the
+ * {@link TransactionRollupService} totals.
+ * The ledgers are bounded by TRANSACTIONS_LEDGER_MAX_BYTES and evicted after TRANSACTIONS_LEDGER_IDLE_MS without sync:
+ * the totals of an evicted ledger are dropped too, and rebuilt by the next (full) sync.
+ */
+@Service
+public class TransactionSyncService {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionSyncService.class);
+
+    // transactions older than this are not available in the API, and dropped from the ledger
+    private static final int WINDOW_DAYS = 180;
+
+    @Autowired
+    private ConfigurationAPIService configurationAPIService;
+
+    @Autowired
+    private TransactionHandler transactionHandler;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private TransactionStore transactionStore;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
+    private BoundedCache<String, TransactionLedger> ledgers;
+
+    @PostConstruct
+    public void init() {
+        ledgers = new BoundedCache<>("transactionLedgers", getApplicationProperty().getTransactionsLedgerMaxBytes(),
+                Duration.ofMillis(getApplicationProperty().getTransactionsLedgerIdleMs()), TransactionLedger::estimateSize,
+                this::onLedgerEvicted);
+    }
+
+    /**
+     * Get the transactions of the last 180 days of the account holder, syncing the ledger first
+     * unless it has been synced within the sync interval
+     * @param accountHolderId
+     * @return
+     */
+    public List<TransactionItem> getTransactions(String accountHolderId) {
+        TransactionLedger ledger = syncIfDue(accountHolderId);
+        return ledger.getTransactions(windowStart().toInstant().toEpochMilli());
+    }
+
+    /**
+     * Sync the ledger of the account holder unless it has been synced within the sync interval
+     * @param accountHolderId
+     * @return the ledger
+     */
+    public TransactionLedger syncIfDue(String accountHolderId) {
+        TransactionLedger ledger = getLedger(accountHolderId);
+
+        if (System.currentTimeMillis() - ledger.getLastSyncAt() >= getApplicationProperty().getTransactionsSyncIntervalMs()) {
+            try {
+                sync(accountHolderId);
+            } catch (RuntimeException e) {
+                if (ledger.getHighWaterMark() == null) {
+                    // never synced: nothing to serve
+                    throw e;
+                }
+                log.warn("Cannot sync transactions of account holder {}, serving the ledger: {}", accountHolderId, e.getMessage());
+            }
+        }
+
+        return ledger;
+    }
+
+    /**
+     * Read the transactions created since the last sync and append them to the ledger
+     * Concurrent syncs of the same account holder share a single run
+     * @param accountHolderId
+     */
+    public void sync(String accountHolderId) {
+        getRequestCoalescer().execute("transactionSync", accountHolderId, () -> {
+            doSync(accountHolderId, getLedger(accountHolderId));
+            return null;
+        });
+    }
+
+    private void doSync(String accountHolderId, TransactionLedger ledger) {
+        long start = System.currentTimeMillis();
+        boolean resumed = ledger.isSyncPending();
+
+        if (!resumed) {
+            OffsetDateTime until = OffsetDateTime.now();
+            OffsetDateTime since = ledger.getHighWaterMark() == null ? windowStart() :
+                    ledger.getHighWaterMark().minus(getApplicationProperty().getTransactionsSyncOverlapMs(), ChronoUnit.MILLIS);
+            ledger.startSync(since, until);
+        }
+
+        AtomicInteger received = new AtomicInteger();
+        try {
+            getConfigurationAPIService().forEachTransactionPage(accountHolderId,
+                    ledger.getPendingSince(), ledger.getPendingUntil(), ledger.getPendingCursor(),
+                    (transactions, nextCursor) -> {
+                        append(accountHolderId, ledger, transactions);
+                        received.addAndGet(transactions.size());
+                        ledger.setPendingCursor(nextCursor);
+                    });
+        } catch (RuntimeException e) {
+            if (resumed) {
+                // the saved cursor may no longer be valid: start again from the high-water mark next time
+                ledger.abortSync();
+            }
+            throw e;
+        }
+
+        ledger.completeSync(System.currentTimeMillis());
+        ledger.compact(windowStart().toInstant().toEpochMilli());
+        // new size, and the idle time starts again
+        ledgers.refresh(accountHolderId, ledger);
+
+        log.info("Synced {} transactions of account holder {} in {}ms (high-water mark: {})",
+                received.get(), accountHolderId, System.currentTimeMillis() - start, ledger.getHighWaterMark());
+    }
+
+    /**
+     * Add transactions pushed by the Adyen platform (ie transaction webhooks) to the ledger of the account holder,
+     * without calling the Transactions API. The next sync reconciles the ledger with the API.
+     * The cached transactions of the account holder are evicted, the next read is served from the ledger
+     * @param accountHolderId
+     * @param transactions
+     */
+    public void ingest(String accountHolderId, List<Transaction> transactions) {
+        TransactionLedger ledger = getLedger(accountHolderId);
+        if (append(accountHolderId, ledger, transactions) > 0) {
+            getAccountHolderCache().getTransactions().invalidate(accountHolderId);
+        }
+        ledgers.refresh(accountHolderId, ledger);
+        log.info("Ingested {} transactions of account holder {}", transactions.size(), accountHolderId);
+    }
+
+    // add the transactions to the ledger, the totals and the store, returns the number of new or changed transactions
+    private int append(String accountHolderId, TransactionLedger ledger, List<Transaction> transactions) {
+        // transactions new or changed since the ledger received them
+        List<Transaction> changed = new ArrayList<>(transactions.size());
+
+        // the ledger and the totals are updated together: an eviction (dropping the totals) cannot interleave
+        synchronized (ledger) {
+            if (ledger.isEvicted()) {
+                return 0;
+            }
+
+            for (Transaction transaction : transactions) {
+                if (transaction.getId() == null || transaction.getCreationDate() == null) {
+                    // cannot be placed in the ledger: skip it, not the whole batch
+                    log.warn("Skipping transaction {} of account holder {}: no id or creation date",
+                            transaction.getId(), accountHolderId);
+                    continue;
+                }
+                long createdAt = transaction.getCreationDate().toInstant().toEpochMilli();
+                String currency = transaction.getAmount() != null ? transaction.getAmount().getCurrency() : null;
+                long value = transaction.getAmount() != null && transaction.getAmount().getValue() != null ?
+                        transaction.getAmount().getValue() : 0;
+
+                TransactionLedger.Entry entry = new TransactionLedger.Entry(transaction.getId(), createdAt,
+                        transaction.getCreationDate().getOffset().getTotalSeconds(), currency, value,
+                        getTransactionHandler().getTransactionItem(transaction));
+                TransactionLedger.Entry previous = ledger.append(entry);
+                if (entry.hasSameValues(previous)) {
+                    // received again unchanged (ie overlapping sync windows)
+                    continue;
+                }
+                // a transaction received again with changes replaces its previous amount in the totals
+                if (previous != null) {
+                    getTransactionRollupService().remove(accountHolderId, previous.currency(),
+                            previous.createdAt(), previous.value());
+                }
+                getTransactionRollupService().add(accountHolderId, currency, createdAt, value);
+                changed.add(transaction);
+            }
+        }
+        // the store also skips the transactions it holds unchanged (ie full sync after a restart)
+        getTransactionStore().append(accountHolderId, changed);
+        return changed.size();
+    }
+
+    private void onLedgerEvicted(String accountHolderId, TransactionLedger ledger) {
+        synchronized (ledger) {
+            ledger.markEvicted();
+            getTransactionRollupService().clear(accountHolderId);
+        }
+        log.info("Evicted transaction ledger of account holder {} ({} entries)", accountHolderId, ledger.size());
+    }
+
+    /**
+     * Ledger of the account holder (created empty when missing)
+     * @param accountHolderId
+     * @return
+     */
+    public TransactionLedger getLedger(String accountHolderId) {
+        return ledgers.get(accountHolderId, id -> new TransactionLedger());
+    }
+
+    /**
+     * Ledger of the account holder, if present (no ledger is created)
+     * @param accountHolderId
+     * @return
+     */
+    public Optional<TransactionLedger> findLedger(String accountHolderId) {
+        return ledgers.get(accountHolderId);
+    }
+
+    /**
+     * Stats of the ledgers cache
+     * @return
+     */
+    public Map<String, Object> getLedgerStats() {
+        return ledgers.getStats();
+    }
+
+    private OffsetDateTime windowStart() {
+        return OffsetDateTime.now().minus(WINDOW_DAYS, ChronoUnit.DAYS);
+    }
+
+    public ConfigurationAPIService getConfigurationAPIService() {
+        return configurationAPIService;
+    }
+
+    public void setConfigurationAPIService(ConfigurationAPIService configurationAPIService) {
+        this.configurationAPIService = configurationAPIService;
+    }
+
+    public TransactionHandler getTransactionHandler() {
+        return transactionHandler;
+    }
+
+    public void setTransactionHandler(TransactionHandler transactionHandler) {
+        this.transactionHandler = transactionHandler;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+
+    public TransactionStore getTransactionStore() {
+        return transactionStore;
+    }
+
+    public void setTransactionStore(TransactionStore transactionStore) {
+        this.transactionStore = transactionStore;
+    }
+
+    public TransactionRollupService getTransactionRollupService() {
+        return transactionRollupService;
+    }
+
+    public void setTransactionRollupService(TransactionRollupService transactionRollupService) {
+        this.transactionRollupService = transactionRollupService;
+    }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
+}
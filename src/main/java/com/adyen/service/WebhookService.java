@@ -0,0 +1,386 @@
+package com.adyen.service;
+
+import com.adyen.cache.AccountHolderCache;
+import com.adyen.config.ApplicationProperty;
+import com.adyen.exception.InvalidWebhookTypeException;
+import com.adyen.model.configurationwebhooks.AccountHolderNotificationRequest;
+import com.adyen.model.configurationwebhooks.BalanceAccountNotificationRequest;
+import com.adyen.model.configurationwebhooks.PaymentNotificationRequest;
+import com.adyen.model.transactionwebhooks.Transaction;
+import com.adyen.model.transactionwebhooks.TransactionNotificationRequestV4;
+import com.adyen.store.WebhookIdempotencyStore;
+import com.adyen.store.WebhookJournal;
+import com.adyen.util.AfpEventHandler;
+import com.adyen.util.TransactionHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process the webhook events.
+ *
+ * With the webhook journal enabled (see {@link WebhookJournal}) an event is acknowledged as soon as it is on disk:
+ * a pool of workers processes the journaled events, so the ack latency does not depend on the downstream calls
+ * (ie completeSignup). Events journaled but not processed before a crash are processed at the next startup.
+ * Without the journal the events are processed before being acknowledged.
+ * Duplicate events (see {@link WebhookIdempotencyStore}) are acknowledged without being journaled or processed. The event keys
+ * are forced to disk before each journal checkpoint, and the keys of the recovered events are added again.
+ */
+@Service
+public class WebhookService {
+
+    private final Logger log = LoggerFactory.getLogger(WebhookService.class);
+
+    // event types processed by this application
+    private static final Set<String> SUPPORTED_TYPES = Set.of(
+            "balancePlatform.accountHolder.created",
+            "balancePlatform.accountHolder.updated",
+            "balancePlatform.balanceAccount.created",
+            "balancePlatform.balanceAccount.updated",
+            "balancePlatform.paymentInstrument.created",
+            "balancePlatform.paymentInstrument.updated",
+            "balancePlatform.transaction.created",
+            "balancePlatform.transfer.created",
+            "balancePlatform.transfer.updated");
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long CHECKPOINT_INTERVAL_MS = 1000;
+
+    @Autowired
+    private SignupService signupService;
+
+    @Autowired
+    private AccountHolderCache accountHolderCache;
+
+    @Autowired
+    private LegalEntityManagementAPIService legalEntityManagementAPIService;
+
+    @Autowired
+    private TransactionSyncService transactionSyncService;
+
+    @Autowired
+    private TransactionHandler transactionHandler;
+
+    @Autowired
+    private AfpEventHandler afpEventHandler;
+
+    @Autowired
+    private WebhookJournal webhookJournal;
+
+    @Autowired
+    private WebhookIdempotencyStore webhookIdempotencyStore;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private ExecutorService workers;
+    private ScheduledExecutorService checkpointScheduler;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (getWebhookJournal().isEnabled()) {
+            int workerCount = Math.max(1, getApplicationProperty().getWebhookWorkers());
+            AtomicInteger threadCount = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+                Thread thread = new Thread(runnable, "webhook-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            int recovered = getWebhookJournal().recover((offset, payload) -> {
+                // the key may not have reached the disk before a crash: remembered again, the redeliveries are duplicates
+                getWebhookIdempotencyStore().add(getWebhookIdempotencyStore().getKey(payload));
+                dispatch(offset, payload);
+            });
+            log.info("WebhookService started (workers: {}, events recovered from the journal: {})", workerCount, recovered);
+        }
+
+        if (!getWebhookJournal().isEnabled() && !getWebhookIdempotencyStore().isEnabled()) {
+            return;
+        }
+
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointScheduler.scheduleWithFixedDelay(this::saveCheckpointQuietly,
+                CHECKPOINT_INTERVAL_MS, CHECKPOINT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+            // events not processed in time stay pending in the journal: processed at the next startup
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        saveCheckpointQuietly();
+    }
+
+    /**
+     * Whether the event type is processed by this application
+     * @param type
+     * @return
+     */
+    public boolean isSupported(String type) {
+        return type != null && SUPPORTED_TYPES.contains(type);
+    }
+
+    /**
+     * Accept the event: journal it and process it asynchronously, or process it right away when the journal is disabled
+     * @param payload
+     * @return false when the event is a duplicate (already accepted): it is not processed again
+     * @throws Exception when the event cannot be journaled (or processed): it must not be acknowledged
+     */
+    public boolean submit(byte[] payload) throws Exception {
+        long key = getWebhookIdempotencyStore().getKey(payload);
+        if (!getWebhookIdempotencyStore().add(key)) {
+            return false;
+        }
+
+        try {
+            if (getWebhookJournal().isEnabled()) {
+                long offset = getWebhookJournal().append(payload);
+                dispatch(offset, payload);
+            } else {
+                process(payload);
+            }
+        } catch (Exception e) {
+            // not accepted: the redelivery must be processed
+            getWebhookIdempotencyStore().remove(key);
+            throw e;
+        }
+        return true;
+    }
+
+    private void dispatch(long offset, byte[] payload) {
+        workers.execute(() -> {
+            // retried: the handlers must be idempotent (ie completeSignup only creates the missing BusinessLine and Store)
+            try {
+                for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                    try {
+                        process(payload);
+                        processed.incrementAndGet();
+                        break;
+                    } catch (InvalidWebhookTypeException e) {
+                        // not retried: processing it again cannot succeed
+                        failed.incrementAndGet();
+                        break;
+                    } catch (Exception e) {
+                        if (attempt == MAX_ATTEMPTS) {
+                            failed.incrementAndGet();
+                            log.error("Failed to process webhook event at journal offset {} after {} attempts", offset, attempt, e);
+                        } else {
+                            log.warn("Failed to process webhook event at journal offset {} (attempt {}): {}", offset, attempt, e.getMessage());
+                            Thread.sleep(RETRY_DELAY_MS * attempt);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // shutting down: the event stays pending in the journal
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // processed, or failed for good: the checkpoint can move past the record
+            getWebhookJournal().complete(offset);
+        });
+    }
+
+    /**
+     * Process the event
+     * @param payload
+     * @throws Exception
+     */
+    public void process(byte[] payload) throws Exception {
+        // type and environment of the event: only the notification of this type is deserialised
+        AfpEventHandler.Event afpEvent = getAfpEventHandler().getEvent(payload);
+        String type = afpEvent.type();
+
+        log.info("Processing event " + type + " on " + afpEvent.environment());
+
+        switch (type) {
+            case "balancePlatform.accountHolder.created":
+                getAfpEventHandler().read(payload, AccountHolderNotificationRequest.class).ifPresent((AccountHolderNotificationRequest event) -> {
+                    // new AccountHolder created
+                });
+                break;
+            case "balancePlatform.accountHolder.updated":
+                getAfpEventHandler().read(payload, AccountHolderNotificationRequest.class).ifPresent((AccountHolderNotificationRequest event) -> {
+                    // refresh cached status
+                    getAccountHolderCache().onAccountHolderUpdated(event.getData().getAccountHolder());
+                    // verification of the legal entity may have changed
+                    getLegalEntityManagementAPIService().invalidate(event.getData().getAccountHolder().getLegalEntityId());
+                    //  AccountHolder updated: complete signup
+                    getSignupService().completeSignup(event.getData().getAccountHolder().getId());
+                });
+                break;
+            case "balancePlatform.balanceAccount.created":
+                getAfpEventHandler().read(payload, BalanceAccountNotificationRequest.class).ifPresent((BalanceAccountNotificationRequest event) -> {
+                    // new BalanceAccount created
+                });
+                break;
+            case "balancePlatform.balanceAccount.updated":
+                getAfpEventHandler().read(payload, BalanceAccountNotificationRequest.class).ifPresent((BalanceAccountNotificationRequest event) -> {
+                    // BalanceAccount updated: its payment instruments may have changed (ie closed)
+                    getAccountHolderCache().evictPaymentInstruments(event.getData().getBalanceAccount().getId());
+                });
+                break;
+            case "balancePlatform.paymentInstrument.created":
+                getAfpEventHandler().read(payload, PaymentNotificationRequest.class).ifPresent((PaymentNotificationRequest event) -> {
+                    // new PaymentInstrument created
+                    getAccountHolderCache().evictPaymentInstruments(event.getData().getPaymentInstrument().getBalanceAccountId());
+                });
+                break;
+            case "balancePlatform.paymentInstrument.updated":
+                getAfpEventHandler().read(payload, PaymentNotificationRequest.class).ifPresent((PaymentNotificationRequest event) -> {
+                    // PaymentInstrument updated
+                    getAccountHolderCache().evictPaymentInstruments(event.getData().getPaymentInstrument().getBalanceAccountId());
+                });
+                break;
+            case "balancePlatform.transaction.created":
+                getAfpEventHandler().read(payload, TransactionNotificationRequestV4.class).ifPresent((TransactionNotificationRequestV4 event) -> {
+                    Transaction transaction = event.getData();
+                    if (transaction != null && transaction.getAccountHolder() != null) {
+                        // new booked or pending transaction: add it to the ledger and totals without polling the Transactions API
+                        getTransactionSyncService().ingest(transaction.getAccountHolder().getId(),
+                                List.of(getTransactionHandler().getTransaction(transaction)));
+                    }
+                });
+                break;
+            case "balancePlatform.transfer.created":
+            case "balancePlatform.transfer.updated":
+                // transfers are not stored: their booked funds are notified by balancePlatform.transaction.created
+                log.info("Transfer event: nothing to process");
+                break;
+
+//          implement other events...
+//
+//
+            default:
+                // deal with unexpected event (ie there is a new event that must be processed?)
+                log.error("Unexpected event type: " + type);
+                throw new InvalidWebhookTypeException("Unexpected event type: " + type);
+        }
+    }
+
+    private void saveCheckpointQuietly() {
+        try {
+            if (getWebhookJournal().isEnabled()) {
+                // the keys of the events the checkpoint moves past are on disk first: they are not recovered again
+                getWebhookJournal().saveCheckpoint(getWebhookIdempotencyStore()::flush);
+            } else {
+                getWebhookIdempotencyStore().flush();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cannot save webhook journal checkpoint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Journal and processing metrics
+     * @return
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "journalEnabled", getWebhookJournal().isEnabled(),
+                "pending", getWebhookJournal().isEnabled() ? getWebhookJournal().getPendingCount() : 0,
+                "appendsPerFsync", getWebhookJournal().isEnabled() ? getWebhookJournal().getAppendsPerForce() : 0,
+                "processed", processed.get(),
+                "failed", failed.get(),
+                "idempotency", getWebhookIdempotencyStore().getStats());
+    }
+
+    public SignupService getSignupService() {
+        return signupService;
+    }
+
+    public void setSignupService(SignupService signupService) {
+        this.signupService = signupService;
+    }
+
+    public AccountHolderCache getAccountHolderCache() {
+        return accountHolderCache;
+    }
+
+    public void setAccountHolderCache(AccountHolderCache accountHolderCache) {
+        this.accountHolderCache = accountHolderCache;
+    }
+
+    public LegalEntityManagementAPIService getLegalEntityManagementAPIService() {
+        return legalEntityManagementAPIService;
+    }
+
+    public void setLegalEntityManagementAPIService(LegalEntityManagementAPIService legalEntityManagementAPIService) {
+        this.legalEntityManagementAPIService = legalEntityManagementAPIService;
+    }
+
+    public TransactionSyncService getTransactionSyncService() {
+        return transactionSyncService;
+    }
+
+    public void setTransactionSyncService(TransactionSyncService transactionSyncService) {
+        this.transactionSyncService = transactionSyncService;
+    }
+
+    public TransactionHandler getTransactionHandler() {
+        return transactionHandler;
+    }
+
+    public void setTransactionHandler(TransactionHandler transactionHandler) {
+        this.transactionHandler = transactionHandler;
+    }
+
+    public AfpEventHandler getAfpEventHandler() {
+        return afpEventHandler;
+    }
+
+    public void setAfpEventHandler(AfpEventHandler afpEventHandler) {
+        this.afpEventHandler = afpEventHandler;
+    }
+
+    public WebhookJournal getWebhookJournal() {
+        return webhookJournal;
+    }
+
+    public void setWebhookJournal(WebhookJournal webhookJournal) {
+        this.webhookJournal = webhookJournal;
+    }
+
+    public WebhookIdempotencyStore getWebhookIdempotencyStore() {
+        return webhookIdempotencyStore;
+    }
+
+    public void setWebhookIdempotencyStore(WebhookIdempotencyStore webhookIdempotencyStore) {
+        this.webhookIdempotencyStore = webhookIdempotencyStore;
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+}
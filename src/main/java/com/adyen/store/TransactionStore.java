@@ -0,0 +1,416 @@
+package com.adyen.store;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.TransactionItem;
+import com.adyen.model.transfers.Transaction;
+import com.adyen.util.TransactionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded on-disk store of the transactions, partitioned by account holder and day (UTC):
+ * one append-only segment file per account holder and day, ie transactions-store/AH123/2024-05-31.seg
+ *
+ * Segments are written sequentially and read through memory-mapped buffers: the filters (creation time, amount sign,
+ * status) are evaluated on the mapped bytes, only the matching transactions are decoded (their strings are copied
+ * out of the mapping and decoded to Strings on read).
+ * The day partitions are the time index of the store: a range query only maps the segments of the days in the range.
+ *
+ * Record layout (big-endian): int length of the rest of the record, long creation time (epoch millis),
+ * long amount value (minor units), then id, status, currency, created, amount (short length + UTF-8, -1 for null).
+ * A transaction appended again unchanged (ie overlapping syncs, full sync after a restart) is not written again: the
+ * records identical to the latest record of the transaction in the segment are skipped. Each recently written segment
+ * keeps an in-memory index (offset and hash of the latest record of each transaction), built once from the segment
+ * and updated on append, so an append only reads back the records whose hash matches.
+ * A transaction written several times (ie status changes) is returned once, with its latest record.
+ */
+@Service
+public class TransactionStore {
+
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final int HEADER_SIZE = Long.BYTES * 2;
+    private static final short NULL_STRING = -1;
+    // segments with an in-memory index: appends mostly go to the latest days
+    private static final int MAX_INDEXED_SEGMENTS = 256;
+
+    public static final String INCOMING = "Incoming";
+    public static final String OUTGOING = "Outgoing";
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private TransactionHandler transactionHandler;
+
+    // appends to a segment are serialized, reads only map the bytes written so far
+    private final Map<Path, Object> segmentLocks = new ConcurrentHashMap<>();
+
+    // latest record of each transaction by segment, least recently appended first (guarded by itself)
+    private final Map<Path, Map<String, RecordRef>> segmentIndexes =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, Map<String, RecordRef>> eldest) {
+                    return size() > MAX_INDEXED_SEGMENTS;
+                }
+            };
+
+    public boolean isEnabled() {
+        return getApplicationProperty().isTransactionsStoreEnabled();
+    }
+
+    /**
+     * Append the transactions to the segments of their creation day, skipping the ones stored unchanged
+     * @param accountHolderId
+     * @param transactions
+     */
+    public void append(String accountHolderId, List<Transaction> transactions) {
+        if (!isEnabled() || transactions.isEmpty()) {
+            return;
+        }
+
+        // group by day, so each segment is opened once
+        Map<LocalDate, List<ByteBuffer>> recordsByDay = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            long createdAt = transaction.getCreationDate().toInstant().toEpochMilli();
+            recordsByDay.computeIfAbsent(day(createdAt), d -> new ArrayList<>())
+                    .add(encode(transaction, createdAt, getTransactionHandler().getTransactionItem(transaction)));
+        }
+
+        try {
+            Path directory = getAccountHolderDirectory(accountHolderId);
+            Files.createDirectories(directory);
+
+            for (Map.Entry<LocalDate, List<ByteBuffer>> day : recordsByDay.entrySet()) {
+                Path segment = directory.resolve(day.getKey() + SEGMENT_EXTENSION);
+                synchronized (segmentLocks.computeIfAbsent(segment, p -> new Object())) {
+                    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                        Map<String, RecordRef> index = segmentIndex(segment, channel);
+                        long end = channel.size();
+                        Map<String, RecordRef> appended = new HashMap<>();
+                        List<ByteBuffer> changed = new ArrayList<>();
+                        for (ByteBuffer record : day.getValue()) {
+                            String id = recordId(record.duplicate());
+                            RecordRef latest = appended.getOrDefault(id, index.get(id));
+                            if (latest == null || !latest.matches(record, channel)) {
+                                appended.put(id, new RecordRef(end, record.hashCode(), record));
+                                end += record.remaining();
+                                changed.add(record);
+                            }
+                        }
+                        if (changed.isEmpty()) {
+                            continue;
+                        }
+
+                        // appends are serialized by the segment lock
+                        channel.position(channel.size());
+                        ByteBuffer[] records = changed.toArray(new ByteBuffer[0]);
+                        while (records[records.length - 1].hasRemaining()) {
+                            channel.write(records);
+                        }
+                        // only once written: a failed append is retried against the previous records
+                        appended.forEach((id, ref) -> index.put(id, ref.written()));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append transactions of account holder " + accountHolderId, e);
+        }
+    }
+
+    /**
+     * Transactions of the account holder created in the range, sorted by creation time
+     * @param accountHolderId
+     * @param from      start of the range (inclusive)
+     * @param to        end of the range (exclusive)
+     * @param status    status of the transactions (ie booked), or null for all
+     * @param direction Incoming or Outgoing, or null for all
+     * @return
+     */
+    public List<TransactionItem> query(String accountHolderId, Instant from, Instant to, String status, String direction) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        byte[] statusBytes = status != null ? status.getBytes(StandardCharsets.UTF_8) : null;
+        int sign = INCOMING.equalsIgnoreCase(direction) ? 1 : OUTGOING.equalsIgnoreCase(direction) ? -1 : 0;
+
+        // latest record of each transaction
+        Map<String, StoredRecord> matches = new LinkedHashMap<>();
+        Path directory = getAccountHolderDirectory(accountHolderId);
+
+        LocalDate firstDay = day(fromMillis);
+        LocalDate lastDay = day(toMillis - 1);
+        // the stored days, listed once: the range may span years (ie from epoch) with a few segments only
+        for (LocalDate day : getDays(accountHolderId)) {
+            if (day.isBefore(firstDay) || day.isAfter(lastDay)) {
+                continue;
+            }
+            Path segment = directory.resolve(day + SEGMENT_EXTENSION);
+
+            ByteBuffer buffer = map(segment);
+            while (buffer.remaining() >= Integer.BYTES + HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < HEADER_SIZE || length > buffer.remaining()) {
+                    // incomplete last record (ie interrupted write)
+                    break;
+                }
+                int next = start + Integer.BYTES + length;
+
+                long createdAt = buffer.getLong();
+                long value = buffer.getLong();
+                if (createdAt >= fromMillis && createdAt < toMillis) {
+                    String id = readString(buffer);
+                    // keep a view on the mapped bytes: decoded only once the latest record is known
+                    matches.remove(id);
+                    matches.put(id, new StoredRecord(id, createdAt, value, buffer.slice()));
+                }
+                buffer.position(next);
+            }
+        }
+
+        List<StoredRecord> records = new ArrayList<>(matches.size());
+        for (StoredRecord record : matches.values()) {
+            if ((sign == 0 || Long.signum(record.value()) == sign)
+                    && (statusBytes == null || stringEquals(record.buffer(), statusBytes))) {
+                records.add(record);
+            }
+        }
+        records.sort((a, b) -> Long.compare(a.createdAt(), b.createdAt()));
+
+        List<TransactionItem> transactionItems = new ArrayList<>(records.size());
+        for (StoredRecord record : records) {
+            transactionItems.add(decode(record));
+        }
+        return transactionItems;
+    }
+
+    /**
+     * Days with stored transactions for the account holder
+     * @param accountHolderId
+     * @return
+     */
+    public List<LocalDate> getDays(String accountHolderId) {
+        Path directory = getAccountHolderDirectory(accountHolderId);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        try (var files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_EXTENSION))
+                    .map(name -> LocalDate.parse(name.substring(0, name.length() - SEGMENT_EXTENSION.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer map(Path segment) {
+        synchronized (segmentLocks.computeIfAbsent(segment, p -> new Object())) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                // the mapping stays valid after the channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read segment " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * Index of the latest record of each transaction in the segment, built from the segment on first use
+     * @param segment
+     * @param channel segment, opened for reading (segment lock held)
+     * @return records by transaction id
+     */
+    private Map<String, RecordRef> segmentIndex(Path segment, FileChannel channel) throws IOException {
+        synchronized (segmentIndexes) {
+            Map<String, RecordRef> index = segmentIndexes.get(segment);
+            if (index != null) {
+                return index;
+            }
+        }
+
+        Map<String, RecordRef> index = new HashMap<>();
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        while (buffer.remaining() >= Integer.BYTES + HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length < HEADER_SIZE || length > buffer.remaining() - Integer.BYTES) {
+                // incomplete last record (ie interrupted write)
+                break;
+            }
+            ByteBuffer record = buffer.slice(start, Integer.BYTES + length);
+            index.put(recordId(record.duplicate()), new RecordRef(start, record.hashCode(), null));
+            buffer.position(start + Integer.BYTES + length);
+        }
+
+        synchronized (segmentIndexes) {
+            segmentIndexes.put(segment, index);
+        }
+        return index;
+    }
+
+    // id of the record, the buffer positioned at its length
+    private String recordId(ByteBuffer record) {
+        record.position(record.position() + Integer.BYTES + HEADER_SIZE);
+        return readString(record);
+    }
+
+    private ByteBuffer encode(Transaction transaction, long createdAt, TransactionItem transactionItem) {
+        byte[][] strings = {
+                bytes(transaction.getId()),
+                bytes(transactionItem.getStatus()),
+                bytes(transaction.getAmount() != null ? transaction.getAmount().getCurrency() : null),
+                bytes(transactionItem.getCreated()),
+                bytes(transactionItem.getAmount())
+        };
+
+        int length = HEADER_SIZE;
+        for (byte[] string : strings) {
+            length += Short.BYTES + (string != null ? string.length : 0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length);
+        buffer.putInt(length);
+        buffer.putLong(createdAt);
+        buffer.putLong(transaction.getAmount() != null && transaction.getAmount().getValue() != null ?
+                transaction.getAmount().getValue() : 0);
+        for (byte[] string : strings) {
+            if (string == null) {
+                buffer.putShort(NULL_STRING);
+            } else {
+                buffer.putShort((short) string.length);
+                buffer.put(string);
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decode the stored record, its buffer starting at the status
+     * @param record
+     * @return
+     */
+    private TransactionItem decode(StoredRecord record) {
+        ByteBuffer buffer = record.buffer();
+        String status = readString(buffer);
+        readString(buffer); // currency
+        String created = readString(buffer);
+        String amount = readString(buffer);
+        return new TransactionItem()
+                .id(record.id())
+                .status(status)
+                .type(record.value() > 0 ? INCOMING : record.value() < 0 ? OUTGOING : "")
+                .created(created)
+                .amount(amount);
+    }
+
+    private boolean stringEquals(ByteBuffer buffer, byte[] expected) {
+        int position = buffer.position();
+        short length = buffer.getShort(position);
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(position + Short.BYTES + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private LocalDate day(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private Path getAccountHolderDirectory(String accountHolderId) {
+        // account holder ids are alphanumeric: reject anything that could escape the store directory
+        if (!accountHolderId.matches("[A-Za-z0-9]+")) {
+            throw new IllegalArgumentException("Invalid account holder id: " + accountHolderId);
+        }
+        return Path.of(getApplicationProperty().getTransactionsStorePath()).toAbsolutePath().resolve(accountHolderId);
+    }
+
+    private record StoredRecord(String id, long createdAt, long value, ByteBuffer buffer) {
+    }
+
+    /**
+     * Latest record of a transaction in a segment
+     * @param offset  position of the record (length included) in the segment
+     * @param hash    hash of the record bytes
+     * @param pending record of the same append not yet written, or null
+     */
+    private record RecordRef(long offset, int hash, ByteBuffer pending) {
+
+        boolean matches(ByteBuffer record, FileChannel channel) throws IOException {
+            if (hash != record.hashCode()) {
+                return false;
+            }
+            if (pending != null) {
+                return pending.equals(record);
+            }
+            // same hash: compare with the stored bytes
+            ByteBuffer stored = ByteBuffer.allocate(record.remaining());
+            while (stored.hasRemaining()) {
+                if (channel.read(stored, offset + stored.position()) < 0) {
+                    return false;
+                }
+            }
+            return stored.flip().equals(record);
+        }
+
+        RecordRef written() {
+            return new RecordRef(offset, hash, null);
+        }
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+
+    public TransactionHandler getTransactionHandler() {
+        return transactionHandler;
+    }
+
+    public void setTransactionHandler(TransactionHandler transactionHandler) {
+        this.transactionHandler = transactionHandler;
+    }
+}
@@ -0,0 +1,416 @@
+package com.adyen.store;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.util.AfpEventHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Identities of the webhook events already accepted, to acknowledge the events redelivered by Adyen (at-least-once
+ * delivery) without processing them again.
+ *
+ * The identity of an event is a 64-bit hash (first bytes of the SHA-256) of its stable fields (type, data id, eventId
+ * and/or timestamp, see {@link AfpEventHandler#getEventIdentity(byte[])}): a redelivery is not necessarily
+ * byte-identical. Events without these fields are identified by their raw payload. A key is looked up in:
+ * - a bounded LRU of the recent keys (retries arrive within minutes)
+ * - a Bloom filter per on-disk table: a negative answer (most events are new) needs no disk access
+ * - the on-disk tables: open-addressing hash tables of 8-byte keys, memory-mapped, in the webhook journal directory
+ *
+ * The current table takes WEBHOOK_IDEMPOTENCY_CAPACITY keys (half its slots), then becomes the previous table and a new
+ * one is started: between 1 and 2 times the capacity are remembered. The slot count of an existing table is its file size
+ * (the capacity may have changed since it was created): it is rolled once half full. The Bloom filters are rebuilt from the tables at startup.
+ * The tables are forced to disk by {@link #flush()}, called before each webhook journal checkpoint: the keys of the events
+ * the checkpoint moves past survive a crash. The keys of the events after the checkpoint are added again when the
+ * journal is recovered.
+ */
+@Service
+public class WebhookIdempotencyStore {
+
+    private final Logger log = LoggerFactory.getLogger(WebhookIdempotencyStore.class);
+
+    private static final String TABLE_FILE_PREFIX = "event-keys.";
+    private static final int BLOOM_HASHES = 7;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+
+    // slot values: the keys are remapped to never collide with these
+    private static final long EMPTY = 0;
+    private static final long REMOVED = 1;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private AfpEventHandler afpEventHandler;
+
+    private Map<Long, Boolean> recent;
+    private Table current;
+    private Table previous;
+
+    private long checked;
+    private long duplicates;
+    private long bloomNegatives;
+    private long recentHits;
+    private long diskLookups;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!getApplicationProperty().isWebhookIdempotencyEnabled()) {
+            return;
+        }
+
+        int lruSize = Math.max(1, getApplicationProperty().getWebhookIdempotencyLruSize());
+        recent = new LinkedHashMap<>(lruSize * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > lruSize;
+            }
+        };
+
+        Path directory = getDirectory();
+        Files.createDirectories(directory);
+        long[] generations;
+        try (Stream<Path> files = Files.list(directory)) {
+            generations = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(TABLE_FILE_PREFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(TABLE_FILE_PREFIX.length())))
+                    .sorted()
+                    .toArray();
+        }
+
+        // older tables left over by a roll interrupted by a crash
+        for (int i = 0; i < generations.length - 2; i++) {
+            Files.deleteIfExists(tablePath(generations[i]));
+        }
+        if (generations.length >= 2) {
+            previous = new Table(generations[generations.length - 2]);
+        }
+        current = new Table(generations.length >= 1 ? generations[generations.length - 1] : 0);
+
+        log.info("WebhookIdempotencyStore started ({} event keys)", current.count + (previous != null ? previous.count : 0));
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (current != null) {
+            current.close();
+            if (previous != null) {
+                previous.close();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return current != null;
+    }
+
+    /**
+     * Identity of the event
+     * @param payload raw payload of the event
+     * @return
+     */
+    public long getKey(byte[] payload) {
+        byte[] identity = getAfpEventHandler().getEventIdentity(payload)
+                .map(eventIdentity -> eventIdentity.getBytes(StandardCharsets.UTF_8))
+                .orElse(payload);
+        MessageDigest digest = SHA_256.get();
+        long key = ByteBuffer.wrap(digest.digest(identity)).getLong();
+        // 0 and 1 are reserved slot values
+        return key == EMPTY || key == REMOVED ? key + 2 : key;
+    }
+
+    /**
+     * Remember the event, unless it is already known
+     * @param key identity of the event (see {@link #getKey(byte[])})
+     * @return true when the event is new, false for a duplicate (or when the store is disabled: never a duplicate)
+     */
+    public synchronized boolean add(long key) {
+        if (!isEnabled()) {
+            return true;
+        }
+
+        checked++;
+        if (contains(key)) {
+            duplicates++;
+            return false;
+        }
+
+        if (current.count >= Math.min(getApplicationProperty().getWebhookIdempotencyCapacity(), current.capacity())) {
+            roll();
+        }
+        current.add(key);
+        recent.put(key, Boolean.TRUE);
+        return true;
+    }
+
+    /**
+     * Forget the event (ie it could not be accepted and is expected to be delivered again)
+     * @param key
+     */
+    public synchronized void remove(long key) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        recent.remove(key);
+        current.remove(key);
+        if (previous != null) {
+            previous.remove(key);
+        }
+    }
+
+    /**
+     * Force the keys added since the last flush to disk
+     */
+    public synchronized void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        current.flush();
+        if (previous != null) {
+            previous.flush();
+        }
+    }
+
+    /**
+     * Duplicate detection metrics since startup
+     * @return
+     */
+    public synchronized Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", isEnabled(),
+                "checked", checked,
+                "duplicates", duplicates,
+                "duplicateRate", checked == 0 ? 0.0 : (double) duplicates / checked,
+                "bloomNegatives", bloomNegatives,
+                "recentHits", recentHits,
+                "diskLookups", diskLookups,
+                "keys", isEnabled() ? current.count + (previous != null ? previous.count : 0) : 0);
+    }
+
+    private boolean contains(long key) {
+        if (recent.get(key) != null) {
+            recentHits++;
+            return true;
+        }
+
+        boolean found = false;
+        boolean maybe = false;
+        for (Table table : previous != null ? new Table[]{current, previous} : new Table[]{current}) {
+            if (table.mightContain(key)) {
+                maybe = true;
+                diskLookups++;
+                if (table.contains(key)) {
+                    found = true;
+                    break;
+                }
+            }
+        }
+        if (!maybe) {
+            bloomNegatives++;
+        }
+        if (found) {
+            recent.put(key, Boolean.TRUE);
+        }
+        return found;
+    }
+
+    private void roll() {
+        try {
+            Table next = new Table(current.generation + 1);
+            if (previous != null) {
+                previous.close();
+                Files.deleteIfExists(tablePath(previous.generation));
+            }
+            previous = current;
+            current = next;
+            log.info("Webhook event keys: table {} started", next.generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start webhook event keys table", e);
+        }
+    }
+
+    private Path getDirectory() {
+        return Path.of(getApplicationProperty().getWebhookJournalPath()).toAbsolutePath();
+    }
+
+    private Path tablePath(long generation) {
+        return getDirectory().resolve(TABLE_FILE_PREFIX + generation);
+    }
+
+    /**
+     * On-disk open-addressing (linear probing) hash table of keys, with its in-memory Bloom filter
+     */
+    private class Table {
+
+        private final long generation;
+        private final FileChannel channel;
+        private final MappedByteBuffer slots;
+        private final int mask;
+        private final long[] bloom;
+        private final long bloomBits;
+        // keys added, including the removed ones (their slots are not reused)
+        private int count;
+        // changed since the last force
+        private boolean dirty;
+
+        Table(long generation) throws IOException {
+            this.generation = generation;
+
+            channel = FileChannel.open(tablePath(generation),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            // an existing table keeps its layout: its slot count is its size
+            long size = channel.size();
+            int slotCount = (int) (size / Long.BYTES);
+            if (size != (long) slotCount * Long.BYTES || Integer.bitCount(slotCount) != 1 || slotCount < 2) {
+                if (size > 0) {
+                    log.warn("Webhook event keys table {} has an invalid size ({} bytes): its keys are dropped", generation, size);
+                    channel.truncate(0);
+                }
+                int capacity = Math.max(1, getApplicationProperty().getWebhookIdempotencyCapacity());
+                slotCount = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+            }
+            mask = slotCount - 1;
+            slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slotCount * Long.BYTES);
+
+            bloomBits = (long) capacity() * BLOOM_BITS_PER_KEY;
+            bloom = new long[(int) ((bloomBits + 63) / 64)];
+
+            for (int slot = 0; slot < slotCount; slot++) {
+                long value = slots.getLong(slot * Long.BYTES);
+                if (value != EMPTY) {
+                    count++;
+                    if (value != REMOVED) {
+                        addToBloom(value);
+                    }
+                }
+            }
+        }
+
+        // keys taken before the table is rolled: half its slots
+        int capacity() {
+            return (mask + 1) / 2;
+        }
+
+        boolean mightContain(long key) {
+            long hash1 = key;
+            long hash2 = (key >>> 32) | 1;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bloomBits);
+                if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contains(long key) {
+            return find(key) >= 0;
+        }
+
+        void add(long key) {
+            int slot = slotOf(key);
+            while (slots.getLong(slot * Long.BYTES) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putLong(slot * Long.BYTES, key);
+            addToBloom(key);
+            count++;
+            dirty = true;
+        }
+
+        void remove(long key) {
+            // the Bloom filter keeps the key: a false positive, resolved by the table
+            int slot = find(key);
+            if (slot >= 0) {
+                slots.putLong(slot * Long.BYTES, REMOVED);
+                dirty = true;
+            }
+        }
+
+        void flush() {
+            if (dirty) {
+                slots.force();
+                dirty = false;
+            }
+        }
+
+        void close() {
+            try {
+                flush();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Cannot close webhook event keys table {}: {}", generation, e.getMessage());
+            }
+        }
+
+        private int find(long key) {
+            int slot = slotOf(key);
+            long value;
+            while ((value = slots.getLong(slot * Long.BYTES)) != EMPTY) {
+                if (value == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slotOf(long key) {
+            return (int) (key >>> 32) & mask;
+        }
+
+        private void addToBloom(long key) {
+            long hash1 = key;
+            long hash2 = (key >>> 32) | 1;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bloomBits);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+
+    public AfpEventHandler getAfpEventHandler() {
+        return afpEventHandler;
+    }
+
+    public void setAfpEventHandler(AfpEventHandler afpEventHandler) {
+        this.afpEventHandler = afpEventHandler;
+    }
+}
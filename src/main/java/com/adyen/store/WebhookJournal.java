@@ -0,0 +1,335 @@
+package com.adyen.store;
+
+import com.adyen.config.ApplicationProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local journal of the webhook events: events are appended to webhook-journal/events.journal and acknowledged
+ * once on disk, then processed asynchronously.
+ *
+ * Appends are group-committed: each appender writes its record, then waits for a force (fsync) covering it. A single
+ * force covers all the records written before it, so under load many events share one fsync.
+ * Every appended record is pending until {@link #complete(long)}. The checkpoint (webhook-journal/checkpoint) is the
+ * offset of the first pending record: after a crash, the records from the checkpoint are processed again.
+ * Once all records are processed and the journal is larger than WEBHOOK_JOURNAL_MAX_BYTES, it is truncated.
+ *
+ * Record layout (big-endian): int length of the payload, int CRC32 of the payload, payload.
+ * An incomplete or corrupted last record (ie crash during a write) is dropped at startup.
+ */
+@Service
+public class WebhookJournal {
+
+    private final Logger log = LoggerFactory.getLogger(WebhookJournal.class);
+
+    private static final String JOURNAL_FILE = "events.journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private FileChannel channel;
+
+    // lock order: checkpointLock, forceLock, then writeLock
+    private final Object writeLock = new Object();
+    private final Object forceLock = new Object();
+    // checkpoints are saved one at a time, before taking forceLock
+    private final Object checkpointLock = new Object();
+    private long writePosition;
+    private long forcedPosition;
+    private long forces;
+    private long appends;
+
+    // offsets of the records appended and not processed yet
+    private final NavigableSet<Long> pending = new ConcurrentSkipListSet<>();
+    private volatile long savedCheckpoint;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!getApplicationProperty().isWebhookJournalEnabled()) {
+            return;
+        }
+
+        Path directory = getDirectory();
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        savedCheckpoint = Files.exists(checkpoint) ? ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong() : 0;
+        if (savedCheckpoint > channel.size()) {
+            log.warn("Webhook journal checkpoint {} beyond the journal size {}, processing the whole journal",
+                    savedCheckpoint, channel.size());
+            savedCheckpoint = 0;
+        }
+        writePosition = channel.size();
+        forcedPosition = writePosition;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (channel != null) {
+            saveCheckpoint();
+            channel.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    /**
+     * Read the records from the checkpoint (not processed before the last shutdown or crash) and mark them pending,
+     * dropping an incomplete last record
+     * @param consumer receives the offset and payload of each record
+     * @return number of records recovered
+     */
+    public int recover(RecordConsumer consumer) throws IOException {
+        int recovered = 0;
+        long position = savedCheckpoint;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        synchronized (forceLock) {
+            synchronized (writeLock) {
+                while (position + HEADER_SIZE <= writePosition) {
+                    header.clear();
+                    readFully(header, position);
+                    int length = header.getInt(0);
+                    int crc = header.getInt(Integer.BYTES);
+                    if (length < 0 || position + HEADER_SIZE + length > writePosition) {
+                        break;
+                    }
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(payload, position + HEADER_SIZE);
+                    if (crc(payload.array()) != crc) {
+                        break;
+                    }
+                    pending.add(position);
+                    consumer.accept(position, payload.array());
+                    recovered++;
+                    position += HEADER_SIZE + length;
+                }
+
+                if (position < writePosition) {
+                    log.warn("Dropping {} bytes of incomplete webhook journal record at offset {}", writePosition - position, position);
+                    channel.truncate(position);
+                    channel.force(false);
+                    writePosition = position;
+                    forcedPosition = position;
+                }
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * Append the payload and wait until it is on disk
+     * @param payload
+     * @return offset of the record
+     */
+    public long append(byte[] payload) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt(crc(payload))
+                .put(payload)
+                .flip();
+
+        long offset;
+        long end;
+        synchronized (writeLock) {
+            offset = writePosition;
+            // pending before the write position moves: the checkpoint can never skip this record
+            pending.add(offset);
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record, offset + record.position());
+                }
+            } catch (IOException e) {
+                pending.remove(offset);
+                throw e;
+            }
+            writePosition = offset + record.limit();
+            end = writePosition;
+            appends++;
+        }
+
+        synchronized (forceLock) {
+            // a force started after this record was written may already cover it
+            if (forcedPosition < end) {
+                long target;
+                synchronized (writeLock) {
+                    target = writePosition;
+                }
+                channel.force(false);
+                forcedPosition = target;
+                forces++;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * The record has been processed
+     * @param offset
+     */
+    public void complete(long offset) {
+        pending.remove(offset);
+    }
+
+    /**
+     * Save the checkpoint (offset of the first pending record), truncating the journal when all records are processed
+     * and it exceeds the max size
+     */
+    public void saveCheckpoint() {
+        saveCheckpoint(() -> { });
+    }
+
+    /**
+     * Save the checkpoint, running the given action once the new checkpoint is known and before it is saved
+     * (ie make durable the state of the records the checkpoint moves past)
+     * @param beforeSave
+     */
+    public void saveCheckpoint(Runnable beforeSave) {
+        synchronized (checkpointLock) {
+            long checkpoint;
+            synchronized (forceLock) {
+                synchronized (writeLock) {
+                    checkpoint = pending.isEmpty() ? writePosition : pending.first();
+                    if (pending.isEmpty() && writePosition > getApplicationProperty().getWebhookJournalMaxBytes()) {
+                        // no append until the checkpoint 0 is saved: a crash in between leaves a checkpoint beyond
+                        // the (empty) journal, reset at startup, never one within records appended after the truncation
+                        beforeSave.run();
+                        try {
+                            channel.truncate(0);
+                            channel.force(false);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Cannot truncate webhook journal", e);
+                        }
+                        log.info("Webhook journal truncated ({} bytes processed)", writePosition);
+                        writePosition = 0;
+                        forcedPosition = 0;
+                        try {
+                            writeCheckpoint(0);
+                        } catch (UncheckedIOException e) {
+                            // no checkpoint file also means 0
+                            deleteCheckpoint(e);
+                        }
+                        return;
+                    }
+                }
+            }
+
+            if (checkpoint != savedCheckpoint) {
+                beforeSave.run();
+                writeCheckpoint(checkpoint);
+            }
+        }
+    }
+
+    private void deleteCheckpoint(UncheckedIOException cause) {
+        try {
+            Files.deleteIfExists(getDirectory().resolve(CHECKPOINT_FILE));
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            throw cause;
+        }
+        savedCheckpoint = 0;
+        log.warn("Cannot save webhook journal checkpoint after truncation, checkpoint deleted: {}", cause.getMessage());
+    }
+
+    private void writeCheckpoint(long checkpoint) {
+        Path path = getDirectory().resolve(CHECKPOINT_FILE);
+        Path tmp = path.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel checkpointChannel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkpointChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(checkpoint).flip());
+            checkpointChannel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save webhook journal checkpoint", e);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save webhook journal checkpoint", e);
+        }
+        // the rename itself is durable once the directory is forced
+        try (FileChannel directory = FileChannel.open(getDirectory(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // not supported on some platforms (ie Windows)
+            log.debug("Cannot force webhook journal directory: {}", e.getMessage());
+        }
+        savedCheckpoint = checkpoint;
+    }
+
+    /**
+     * Number of records appended and not processed yet
+     * @return
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Average number of records per fsync since startup
+     * @return
+     */
+    public double getAppendsPerForce() {
+        synchronized (forceLock) {
+            synchronized (writeLock) {
+                return forces == 0 ? 0 : (double) appends / forces;
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    private int crc(byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+
+    private Path getDirectory() {
+        return Path.of(getApplicationProperty().getWebhookJournalPath()).toAbsolutePath();
+    }
+
+    /**
+     * Receives the records of the journal
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long offset, byte[] payload);
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+}
@@ -1,30 +1,140 @@
 package com.adyen.util;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
 /**
  * Helper class to process AfP events
+ *
+ * The payload is read once as bytes: the event type and environment are found with a streaming scan of the top-level
+ * fields (nested objects are skipped, no tree is built), then only the notification of that type is bound.
+ * The mapper is shared (thread-safe once configured).
  */
 @Service
 public class AfpEventHandler {
 
-    public String getEventType(String json) throws JsonProcessingException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode jsonNode = objectMapper.readTree(json);
-        JsonNode type = jsonNode.get("type");
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE, false);
 
-        return type != null ? type.asText() : null;
+    public String getEventType(String json) throws JsonProcessingException {
+        return getEvent(json.getBytes(StandardCharsets.UTF_8)).type();
     }
 
     public String getEventEnvironment(String json) throws JsonProcessingException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode jsonNode = objectMapper.readTree(json);
-        JsonNode environment = jsonNode.get("environment");
+        return getEvent(json.getBytes(StandardCharsets.UTF_8)).environment();
+    }
 
-        return environment != null ? environment.asText() : null;
+    /**
+     * Type and environment of the event
+     * @param payload
+     * @return
+     * @throws JsonProcessingException
+     */
+    public Event getEvent(byte[] payload) throws JsonProcessingException {
+        String type = null;
+        String environment = null;
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Event payload is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME && (type == null || environment == null)) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("environment".equals(field) && value == JsonToken.VALUE_STRING) {
+                    environment = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            // not expected when reading from a byte array
+            throw new IllegalStateException(e);
+        }
+
+        return new Event(type, environment);
     }
 
-}
\ No newline at end of file
+    /**
+     * Stable identity of the event: its type, the id of its data and its eventId and/or timestamp.
+     * A redelivered event has the same identity even when its payload is serialized differently
+     * @param payload
+     * @return the identity, empty when the fields are missing or the payload is not a JSON object
+     */
+    public Optional<String> getEventIdentity(byte[] payload) {
+        String type = null;
+        String dataId = null;
+        String eventId = null;
+        String timestamp = null;
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("eventId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    eventId = parser.getText();
+                } else if ("timestamp".equals(field) && value == JsonToken.VALUE_STRING) {
+                    timestamp = parser.getText();
+                } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String dataField = parser.currentName();
+                        JsonToken dataValue = parser.nextToken();
+                        if ("id".equals(dataField) && dataValue == JsonToken.VALUE_STRING) {
+                            dataId = parser.getText();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        if (type == null || dataId == null || (eventId == null && timestamp == null)) {
+            return Optional.empty();
+        }
+        return Optional.of(type + "|" + dataId + "|" + (eventId != null ? eventId : "") + "|" + (timestamp != null ? timestamp : ""));
+    }
+
+    /**
+     * Bind the payload to the notification class of its event type
+     * @param payload
+     * @param notificationClass
+     * @return the notification, empty when the payload is null
+     * @throws IOException
+     */
+    public <T> Optional<T> read(byte[] payload, Class<T> notificationClass) throws IOException {
+        return Optional.ofNullable(MAPPER.readValue(payload, notificationClass));
+    }
+
+    /**
+     * Type and environment of an event
+     * @param type
+     * @param environment
+     */
+    public record Event(String type, String environment) {
+    }
+}
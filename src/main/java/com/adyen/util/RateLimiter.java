@@ -0,0 +1,39 @@
+package com.adyen.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simple rate limiter spacing out permits evenly (no bursts)
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeSlot = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond max number of permits per second
+     */
+    public RateLimiter(int permitsPerSecond) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, permitsPerSecond);
+    }
+
+    /**
+     * Block until the given number of permits is available
+     * @param permits
+     * @throws InterruptedException
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(nextFreeSlot, now);
+            nextFreeSlot = slot + intervalNanos * permits;
+            waitNanos = slot - now;
+        }
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
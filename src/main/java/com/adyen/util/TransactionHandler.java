@@ -6,25 +6,53 @@ import com.adyen.model.transfers.Transaction;
 import org.springframework.stereotype.Service;
 
 import java.text.NumberFormat;
-import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Helper class to work with the Transaction class
+ *
+ * Formatters are shared: DateTimeFormatter is immutable, NumberFormat is not thread-safe so each thread gets its own.
  */
 @Service
 public class TransactionHandler {
 
+    // lists from this size are converted in parallel by getTransactionItems(List)
+    public static final int PARALLEL_THRESHOLD = 10_000;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ThreadLocal<NumberFormat> NUMBER_FORMAT = ThreadLocal.withInitial(NumberFormat::getNumberInstance);
+
     /**
      * Create a list of TransactionItem from the given list of Transaction
+     * (in parallel for lists of PARALLEL_THRESHOLD transactions or more)
      * @param transactions
      * @return
      */
     public List<TransactionItem> getTransactionItems(List<Transaction> transactions) {
-        List<TransactionItem> transactionItems = new ArrayList<>();
+        return getTransactionItems(transactions, transactions.size() >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Create a list of TransactionItem from the given list of Transaction
+     * @param transactions
+     * @param parallel convert the transactions on the common fork-join pool
+     * @return the items, in the order of the transactions
+     */
+    public List<TransactionItem> getTransactionItems(List<Transaction> transactions, boolean parallel) {
+        if (parallel) {
+            // each task writes its own slots: no synchronization needed
+            TransactionItem[] transactionItems = new TransactionItem[transactions.size()];
+            IntStream.range(0, transactionItems.length).parallel()
+                    .forEach(i -> transactionItems[i] = getTransactionItem(transactions.get(i)));
+            return new ArrayList<>(Arrays.asList(transactionItems));
+        }
+
+        List<TransactionItem> transactionItems = new ArrayList<>(transactions.size());
 
         for(Transaction transaction : transactions) {
             transactionItems.add(getTransactionItem(transaction));
@@ -41,27 +69,58 @@ public class TransactionHandler {
     public TransactionItem getTransactionItem(Transaction transaction) {
         return new TransactionItem()
                 .id(transaction.getId())
-                .status(transaction.getStatus().getValue())
+                .status(transaction.getStatus() != null ? transaction.getStatus().getValue() : null)
                 .type(getType(transaction.getAmount()))
                 .created(formatDate(transaction.getCreationDate()))
                 .amount(formatAmount(transaction.getAmount()));
     }
 
+    /**
+     * Create a Transaction (as returned by the Transactions API) from the Transaction of a transaction webhook
+     * @param transaction
+     * @return
+     */
+    public Transaction getTransaction(com.adyen.model.transactionwebhooks.Transaction transaction) {
+        return new Transaction()
+                .id(transaction.getId())
+                .status(transaction.getStatus() != null ? Transaction.StatusEnum.fromValue(transaction.getStatus().getValue()) : null)
+                .amount(transaction.getAmount() != null ?
+                        new Amount().currency(transaction.getAmount().getCurrency()).value(transaction.getAmount().getValue()) : null)
+                .creationDate(transaction.getCreationDate());
+    }
+
+    /**
+     * Create a TransactionItem from the attributes of a transaction
+     * @param id
+     * @param status
+     * @param currency currency of the amount, null when the transaction has no amount
+     * @param value amount in minor units
+     * @param creationDate
+     * @return
+     */
+    public TransactionItem getTransactionItem(String id, String status, String currency, long value, OffsetDateTime creationDate) {
+        return new TransactionItem()
+                .id(id)
+                .status(status)
+                .type(currency != null ? getType(value) : "")
+                .created(formatDate(creationDate))
+                .amount(currency != null ? formatAmount(currency, value) : "");
+    }
+
     private String formatAmount(Amount amount) {
-        String ret = "";
+        return amount != null ? formatAmount(String.valueOf(amount.getCurrency()), amount.getValue()) : "";
+    }
 
-        if(amount != null) {
-            NumberFormat numberFormat = NumberFormat.getNumberInstance();
-            // display absolute amount and format
-            String formattedAmount = numberFormat.format(Math.abs(amount.getValue()));
-            ret = amount.getCurrency() + " " + formattedAmount;
-        }
-        return ret;
+    private String formatAmount(String currency, long value) {
+        // display absolute amount and format
+        String formattedAmount = NUMBER_FORMAT.get().format(Math.abs(value));
+        return new StringBuilder(currency.length() + 1 + formattedAmount.length())
+                .append(currency).append(' ').append(formattedAmount)
+                .toString();
     }
 
     private String formatDate(OffsetDateTime offsetDateTime) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return offsetDateTime.format(formatter);
+        return DATE_FORMATTER.format(offsetDateTime);
     }
 
     /**
@@ -72,14 +131,16 @@ public class TransactionHandler {
      * @return
      */
     private String getType(Amount amount) {
+        return amount != null ? getType(amount.getValue()) : "";
+    }
+
+    private String getType(long value) {
         String ret = "";
 
-        if(amount != null) {
-            if(amount.getValue() > 0) {
-                ret = "Incoming";
-            } if(amount.getValue() < 0) {
-                ret = "Outgoing";
-            }
+        if(value > 0) {
+            ret = "Incoming";
+        } if(value < 0) {
+            ret = "Outgoing";
         }
 
         return ret;
@@ -0,0 +1,194 @@
+package com.adyen.util;
+
+import com.adyen.config.ApplicationProperty;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Validate the HMAC signature (HmacSignature header) of the webhook events.
+ *
+ * The signature is computed over the raw request body, as received: no String decoding and re-encoding
+ * (see {@link HMACValidator#validateHMAC(String, String, String)}), and checked before the payload is parsed.
+ * Each thread keeps its initialised Mac instances (one per key) and output buffer: initialising a Mac with its key
+ * costs more than signing a small payload.
+ *
+ * ADYEN_HMAC_KEY accepts several comma-separated keys (hex) for key rotation: add the new key, update the webhook
+ * in the Customer Area, then remove the old key. A signature is valid if it matches any key.
+ * The keys are parsed at startup: a malformed key stops the application, a missing key (with the validation enabled)
+ * is logged as an error since every webhook request is then rejected.
+ */
+@Service
+public class WebhookSignatureValidator {
+
+    private final Logger log = LoggerFactory.getLogger(WebhookSignatureValidator.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    // bytes of a HmacSHA256 signature
+    private static final int MAC_LENGTH = 32;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private volatile Keys keys;
+
+    private final ThreadLocal<ThreadMacs> threadMacs = new ThreadLocal<>();
+
+    @PostConstruct
+    public void init() {
+        try {
+            keys = Keys.parse(getConfiguredKeys());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid ADYEN_HMAC_KEY (hex keys, comma-separated): " + e.getMessage(), e);
+        }
+        log.info("Webhook HMAC keys loaded ({} keys)", keys.secretKeys.length);
+
+        if (getApplicationProperty().isWebhookHmacValidationEnabled() && !hasKeys()) {
+            log.error("ADYEN_HMAC_KEY is not set: every webhook request is rejected (401). Set ADYEN_HMAC_KEY, " +
+                    "or WEBHOOK_HMAC_VALIDATION_ENABLED=false on local testing");
+        }
+    }
+
+    /**
+     * Whether the signature of the payload is valid
+     * @param payload raw body of the webhook request
+     * @param signature Base64 HMAC signature (HmacSignature header)
+     * @return
+     */
+    public boolean isValid(byte[] payload, String signature) {
+        if (signature == null || signature.isBlank()) {
+            return false;
+        }
+
+        byte[] expected;
+        try {
+            expected = Base64.getDecoder().decode(signature.trim());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        ThreadMacs macs = getThreadMacs();
+        boolean valid = false;
+        for (Mac mac : macs.macs) {
+            mac.update(payload);
+            try {
+                mac.doFinal(macs.output, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            // constant time: no early exit on the first different byte
+            valid |= MessageDigest.isEqual(macs.output, expected);
+        }
+        return valid;
+    }
+
+    /**
+     * Whether signatures are validated (at least one key configured)
+     * @return
+     */
+    public boolean hasKeys() {
+        return getKeys().secretKeys.length > 0;
+    }
+
+    private ThreadMacs getThreadMacs() {
+        Keys current = getKeys();
+        ThreadMacs macs = threadMacs.get();
+        if (macs == null || macs.keys != current) {
+            // first use on this thread, or the keys have changed
+            macs = new ThreadMacs(current);
+            threadMacs.set(macs);
+        }
+        return macs;
+    }
+
+    private Keys getKeys() {
+        String configured = getConfiguredKeys();
+        Keys current = keys;
+        if (current == null || !current.configured.equals(configured)) {
+            // changed since startup (ie set programmatically): parsed once, an invalid key rejects all signatures
+            try {
+                current = Keys.parse(configured);
+                log.info("Webhook HMAC keys loaded ({} keys)", current.secretKeys.length);
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid ADYEN_HMAC_KEY (hex keys, comma-separated): {}", e.getMessage());
+                current = new Keys(configured, new SecretKeySpec[0]);
+            }
+            keys = current;
+        }
+        return current;
+    }
+
+    private String getConfiguredKeys() {
+        return getApplicationProperty().getHmacKey() != null ? getApplicationProperty().getHmacKey() : "";
+    }
+
+    /**
+     * Keys parsed from ADYEN_HMAC_KEY
+     */
+    private static class Keys {
+
+        private final String configured;
+        private final SecretKeySpec[] secretKeys;
+
+        Keys(String configured, SecretKeySpec[] secretKeys) {
+            this.configured = configured;
+            this.secretKeys = secretKeys;
+        }
+
+        /**
+         * Parse the comma-separated hex keys
+         * @param configured
+         * @return
+         * @throws IllegalArgumentException when a key is not valid hex
+         */
+        static Keys parse(String configured) {
+            return new Keys(configured, Arrays.stream(configured.split(","))
+                    .map(String::trim)
+                    .filter(key -> !key.isEmpty())
+                    .map(key -> new SecretKeySpec(HexFormat.of().parseHex(key), ALGORITHM))
+                    .toArray(SecretKeySpec[]::new));
+        }
+    }
+
+    /**
+     * Mac instances of a thread, initialised with the keys
+     */
+    private static class ThreadMacs {
+
+        private final Keys keys;
+        private final Mac[] macs;
+        private final byte[] output;
+
+        ThreadMacs(Keys keys) {
+            this.keys = keys;
+            this.macs = new Mac[keys.secretKeys.length];
+            this.output = new byte[MAC_LENGTH];
+            try {
+                for (int i = 0; i < macs.length; i++) {
+                    macs[i] = Mac.getInstance(ALGORITHM);
+                    macs[i].init(keys.secretKeys[i]);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+        }
+    }
+
+    public ApplicationProperty getApplicationProperty() {
+        return applicationProperty;
+    }
+
+    public void setApplicationProperty(ApplicationProperty applicationProperty) {
+        this.applicationProperty = applicationProperty;
+    }
+}
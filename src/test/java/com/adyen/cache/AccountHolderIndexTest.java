@@ -0,0 +1,136 @@
+package com.adyen.cache;
+
+import com.adyen.model.AccountHolderProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountHolderIndexTest {
+
+    private AccountHolderIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AccountHolderIndex();
+        index.put(accountHolder("AH1", "Charlie", "active", "organization", "NL"));
+        index.put(accountHolder("AH2", "alpha", "active", "individual", "NL"));
+        index.put(accountHolder("AH3", "Bravo", "suspended", "organization", "US"));
+        index.put(accountHolder("AH4", "Delta", "closed", "individual", "US"));
+    }
+
+    @Test
+    void filtersWithinAndAcrossFacets() {
+        AccountHolderIndex.QueryResult result = index.query(
+                Map.of(AccountHolderIndex.STATUS, List.of("active", "suspended"), AccountHolderIndex.COUNTRY, List.of("NL")),
+                null, false, 0, 10);
+
+        assertThat(ids(result)).containsExactly("AH1", "AH2");
+        assertThat(result.totalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void sortsByLegalNameCaseInsensitive() {
+        AccountHolderIndex.QueryResult ascending = index.query(Map.of(), AccountHolderIndex.LEGAL_NAME, false, 0, 10);
+        AccountHolderIndex.QueryResult descending = index.query(Map.of(), AccountHolderIndex.LEGAL_NAME, true, 1, 2);
+
+        assertThat(ids(ascending)).containsExactly("AH2", "AH3", "AH1", "AH4");
+        assertThat(ids(descending)).containsExactly("AH1", "AH3");
+        assertThat(descending.totalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void countsFacetValuesWithTheOtherFacetFiltersOnly() {
+        AccountHolderIndex.QueryResult result = index.query(
+                Map.of(AccountHolderIndex.STATUS, List.of("active"), AccountHolderIndex.TYPE, List.of("organization")),
+                null, false, 0, 10);
+
+        assertThat(ids(result)).containsExactly("AH1");
+        // status counts ignore the status filter, apply the type filter
+        assertThat(result.facets().get(AccountHolderIndex.STATUS)).containsEntry("active", 1).containsEntry("suspended", 1);
+        // type counts ignore the type filter, apply the status filter
+        assertThat(result.facets().get(AccountHolderIndex.TYPE)).containsEntry("organization", 1).containsEntry("individual", 1);
+        assertThat(result.facets().get(AccountHolderIndex.COUNTRY)).containsEntry("NL", 1).doesNotContainKey("US");
+    }
+
+    @Test
+    void putReplacesFacetValuesAndSortOrder() {
+        index.put(accountHolder("AH4", "Aardvark", "active", "individual", "NL"));
+
+        AccountHolderIndex.QueryResult result = index.query(
+                Map.of(AccountHolderIndex.STATUS, List.of("active")), AccountHolderIndex.LEGAL_NAME, false, 0, 10);
+
+        assertThat(ids(result)).containsExactly("AH4", "AH2", "AH1");
+        assertThat(result.facets().get(AccountHolderIndex.STATUS)).doesNotContainKey("closed");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void removedAccountHoldersLeaveFiltersSortAndCounts() {
+        index.remove("AH2");
+
+        AccountHolderIndex.QueryResult result = index.query(Map.of(), AccountHolderIndex.LEGAL_NAME, false, 0, 10);
+
+        assertThat(ids(result)).containsExactly("AH3", "AH1", "AH4");
+        assertThat(result.facets().get(AccountHolderIndex.COUNTRY)).containsEntry("NL", 1).containsEntry("US", 2);
+        assertThat(index.size()).isEqualTo(3);
+
+        // indexed again: back in the sorted order
+        index.put(accountHolder("AH2", "alpha", "active", "individual", "NL"));
+        assertThat(ids(index.query(Map.of(), AccountHolderIndex.LEGAL_NAME, false, 0, 10)))
+                .containsExactly("AH2", "AH3", "AH1", "AH4");
+    }
+
+    @Test
+    void ordinalsOfRemovedAccountHoldersAreReused() {
+        index.remove("AH2");
+        index.remove("AH3");
+        index.put(accountHolder("AH5", "Echo", "active", "individual", "NL"));
+        index.put(accountHolder("AH6", "Foxtrot", "closed", "organization", "US"));
+        index.put(accountHolder("AH7", "Golf", "active", "organization", "NL"));
+
+        // index order: the freed ordinals first, then the next ones
+        assertThat(ids(index.query(Map.of(), null, false, 0, 10))).containsExactly("AH1", "AH5", "AH6", "AH4", "AH7");
+        assertThat(ids(index.query(Map.of(AccountHolderIndex.STATUS, List.of("closed")), null, false, 0, 10)))
+                .containsExactly("AH6", "AH4");
+        assertThat(index.query(Map.of(), null, false, 0, 10).facets().get(AccountHolderIndex.STATUS))
+                .doesNotContainKey("suspended");
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void evictionRemovesOnlyTheEvictedProjection() {
+        AccountHolderProjection evicted = accountHolder("AH1", "Charlie", "active", "organization", "NL");
+        index.put(evicted);
+        AccountHolderProjection replacement = accountHolder("AH1", "Charlie", "suspended", "organization", "NL");
+        index.put(replacement);
+
+        // eviction of a projection already replaced: kept
+        index.remove("AH1", evicted);
+        assertThat(index.size()).isEqualTo(4);
+
+        index.remove("AH1", replacement);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(ids(index.query(Map.of(), null, false, 0, 10))).containsExactly("AH2", "AH3", "AH4");
+    }
+
+    @Test
+    void sortedPagesIncludeAccountHoldersAddedAfterTheLastRebuild() {
+        index.query(Map.of(), AccountHolderIndex.LEGAL_NAME, false, 0, 10);
+        index.put(accountHolder("AH5", "Echo", "active", "individual", "NL"));
+
+        assertThat(ids(index.query(Map.of(), AccountHolderIndex.LEGAL_NAME, false, 0, 10)))
+                .containsExactly("AH2", "AH3", "AH1", "AH4", "AH5");
+    }
+
+    private static List<String> ids(AccountHolderIndex.QueryResult result) {
+        return result.content().stream().map(AccountHolderProjection::getId).toList();
+    }
+
+    private static AccountHolderProjection accountHolder(String id, String legalName, String status, String type, String country) {
+        return new AccountHolderProjection(id, "ref-" + id, null, status, "LE-" + id, legalName, type, country);
+    }
+}
@@ -0,0 +1,72 @@
+package com.adyen.cache;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.AccountHolderProjection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesStillFreshAreRestoredAndIndexed() throws Exception {
+        CacheSnapshotService saved = snapshotService(60_000);
+        saved.getAccountHolderCache().putAccountHolder(accountHolder("AH1"));
+        saved.getAccountHolderCache().getPages().put("page-0", List.of("AH1"));
+        saved.save();
+
+        CacheSnapshotService restored = snapshotService(60_000);
+        restored.restore();
+
+        assertThat(restored.getRestoredEntries()).isEqualTo(2);
+        assertThat(restored.getAccountHolderCache().getAccountHolderIndex().size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntriesAreNotCountedNorIndexed() throws Exception {
+        CacheSnapshotService saved = snapshotService(60_000);
+        saved.getAccountHolderCache().putAccountHolder(accountHolder("AH1"));
+        saved.getAccountHolderCache().getPages().put("page-0", List.of("AH1"));
+        saved.save();
+        Thread.sleep(20);
+
+        CacheSnapshotService restored = snapshotService(10);
+        restored.restore();
+
+        assertThat(restored.getRestoredEntries()).isZero();
+        assertThat(restored.getAccountHolderCache().getAccountHolders().size()).isZero();
+        assertThat(restored.getAccountHolderCache().getAccountHolderIndex().size()).isZero();
+        assertThat(restored.getAccountHolderCache().getAccountHolderIndex().query(Map.of(), null, false, 0, 10).content())
+                .isEmpty();
+    }
+
+    private CacheSnapshotService snapshotService(long ttlMs) {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setCacheTtlMs(ttlMs);
+        applicationProperty.setAccountHoldersCacheMaxBytes(1 << 20);
+        applicationProperty.setTransactionsCacheMaxBytes(1 << 20);
+        applicationProperty.setCacheSnapshotPath(directory.resolve("cache.snapshot").toString());
+
+        AccountHolderCache accountHolderCache = new AccountHolderCache();
+        accountHolderCache.setApplicationProperty(applicationProperty);
+        accountHolderCache.setAccountHolderIndex(new AccountHolderIndex());
+        accountHolderCache.init();
+
+        CacheSnapshotService cacheSnapshotService = new CacheSnapshotService();
+        cacheSnapshotService.setApplicationProperty(applicationProperty);
+        cacheSnapshotService.setAccountHolderCache(accountHolderCache);
+        return cacheSnapshotService;
+    }
+
+    private static AccountHolderProjection accountHolder(String id) {
+        return new AccountHolderProjection(id, "ref-" + id, null, "active", "LE-" + id, "Legal " + id, "organization", "NL");
+    }
+}
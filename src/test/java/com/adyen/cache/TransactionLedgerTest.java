@@ -0,0 +1,90 @@
+package com.adyen.cache;
+
+import com.adyen.model.TransactionItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionLedgerTest {
+
+    private final TransactionLedger ledger = new TransactionLedger();
+
+    @Test
+    void newTransactionsAreAppended() {
+        assertThat(ledger.append(entry("T1", 2000, 100, "booked"))).isNull();
+        assertThat(ledger.append(entry("T2", 1000, -50, "booked"))).isNull();
+
+        assertThat(ids(ledger.getTransactions(0))).containsExactly("T2", "T1");
+        assertThat(ledger.size()).isEqualTo(2);
+    }
+
+    @Test
+    void unchangedTransactionsAreSkippedAndViewsKept() {
+        ledger.append(entry("T1", 1000, 100, "booked"));
+        List<TransactionItem> view = ledger.getTransactions(0);
+        TransactionColumns columns = ledger.getColumns();
+
+        TransactionLedger.Entry again = entry("T1", 1000, 100, "booked");
+        TransactionLedger.Entry previous = ledger.append(again);
+
+        assertThat(again.hasSameValues(previous)).isTrue();
+        assertThat(ledger.size()).isEqualTo(1);
+        // derived views are not rebuilt
+        assertThat(ledger.getTransactions(0)).isSameAs(view);
+        assertThat(ledger.getColumns()).isSameAs(columns);
+    }
+
+    @Test
+    void changedTransactionsReplaceTheirPreviousEntry() {
+        TransactionLedger.Entry pending = entry("T1", 1000, 100, "pending");
+        ledger.append(pending);
+        ledger.append(entry("T2", 2000, 30, "booked"));
+
+        TransactionLedger.Entry booked = entry("T1", 1000, 100, "booked");
+        assertThat(ledger.append(booked)).isSameAs(pending);
+        assertThat(booked.hasSameValues(pending)).isFalse();
+
+        List<TransactionItem> transactions = ledger.getTransactions(0);
+        assertThat(ids(transactions)).containsExactly("T1", "T2");
+        assertThat(transactions.get(0).getStatus()).isEqualTo("booked");
+        // the replaced entry is kept until compaction
+        assertThat(ledger.size()).isEqualTo(3);
+    }
+
+    @Test
+    void compactDropsReplacedAndOldEntries() {
+        ledger.append(entry("T1", 1000, 100, "pending"));
+        ledger.append(entry("T2", 2000, 30, "booked"));
+        ledger.append(entry("T3", 3000, 40, "booked"));
+        ledger.append(entry("T2", 2000, 30, "booked"));
+        ledger.append(entry("T3", 3000, 45, "booked"));
+
+        ledger.compact(1500);
+
+        assertThat(ledger.size()).isEqualTo(2);
+        assertThat(ids(ledger.getTransactions(0))).containsExactly("T2", "T3");
+        assertThat(ledger.getTransactions(2500).get(0).getAmount()).isEqualTo("45");
+    }
+
+    @Test
+    void readsSkipTransactionsOlderThanTheGivenTime() {
+        ledger.append(entry("T1", 1000, 100, "booked"));
+        ledger.append(entry("T2", 2000, 100, "booked"));
+        ledger.append(entry("T3", 2000, 100, "booked"));
+        ledger.append(entry("T4", 3000, 100, "booked"));
+
+        assertThat(ids(ledger.getTransactions(2000))).containsExactly("T2", "T3", "T4");
+        assertThat(ids(ledger.getTransactions(3001))).isEmpty();
+    }
+
+    private static List<String> ids(List<TransactionItem> transactions) {
+        return transactions.stream().map(TransactionItem::getId).toList();
+    }
+
+    private static TransactionLedger.Entry entry(String id, long createdAt, long value, String status) {
+        return new TransactionLedger.Entry(id, createdAt, 0, "EUR", value,
+                new TransactionItem().id(id).status(status).amount(String.valueOf(value)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.adyen.service;
+
+import com.adyen.model.AccountHolderStatus;
+import com.adyen.model.StoreConfiguration;
+import com.adyen.model.balanceplatform.AccountHolder;
+import com.adyen.model.legalentitymanagement.Address;
+import com.adyen.model.legalentitymanagement.BusinessLine;
+import com.adyen.model.legalentitymanagement.LegalEntity;
+import com.adyen.model.legalentitymanagement.Organization;
+import com.adyen.model.management.Store;
+import com.adyen.util.AddressHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignupServiceTest {
+
+    private final List<BusinessLine> businessLines = new ArrayList<>();
+    private final List<Store> stores = new ArrayList<>();
+    private boolean storeCreationFails;
+
+    private SignupService signupService;
+
+    @BeforeEach
+    void setUp() {
+        signupService = new SignupService();
+        signupService.setAddressHandler(new AddressHandler());
+        signupService.setConfigurationAPIService(new ConfigurationAPIService() {
+            @Override
+            public Optional<AccountHolder> getAccountHolder(String accountHolderId) {
+                return Optional.of(new AccountHolder().id(accountHolderId).legalEntityId("LE1").primaryBalanceAccount("BA1"));
+            }
+
+            @Override
+            public AccountHolderStatus getAccountHolderStatus(AccountHolder accountHolder) {
+                return AccountHolderStatus.VALID;
+            }
+        });
+        signupService.setLegalEntityManagementAPIService(new LegalEntityManagementAPIService() {
+            @Override
+            public LegalEntity get(String id) {
+                return new LegalEntity().id(id).type(LegalEntity.TypeEnum.ORGANIZATION)
+                        .organization(new Organization().registeredAddress(new Address().city("Amsterdam").country("NL")));
+            }
+
+            @Override
+            public Optional<BusinessLine> findBusinessLine(String legalEntityId) {
+                return businessLines.stream().filter(businessLine -> legalEntityId.equals(businessLine.getLegalEntityId())).findFirst();
+            }
+
+            @Override
+            public BusinessLine createBusinessLine(String legalEntityId) {
+                BusinessLine businessLine = new BusinessLine().id("BL" + (businessLines.size() + 1)).legalEntityId(legalEntityId);
+                businessLines.add(businessLine);
+                return businessLine;
+            }
+        });
+        signupService.setManagementAPIService(new ManagementAPIService() {
+            @Override
+            public Optional<Store> findStore(String businessLineId) {
+                return stores.stream().filter(store -> store.getBusinessLineIds().contains(businessLineId)).findFirst();
+            }
+
+            @Override
+            public Store createStore(StoreConfiguration storeConfiguration) {
+                if (storeCreationFails) {
+                    throw new RuntimeException("Cannot create Store: timeout");
+                }
+                Store store = new Store().id("ST" + (stores.size() + 1)).businessLineIds(List.of(storeConfiguration.getBusinessLineId()));
+                stores.add(store);
+                return store;
+            }
+        });
+    }
+
+    @Test
+    void completeSignupCreatesTheBusinessLineAndStoreOnce() {
+        signupService.completeSignup("AH1");
+        signupService.completeSignup("AH1");
+
+        assertThat(businessLines).hasSize(1);
+        assertThat(stores).hasSize(1);
+    }
+
+    @Test
+    void completeSignupRetriedAfterAStoreFailureReusesTheBusinessLine() {
+        storeCreationFails = true;
+        assertThatThrownBy(() -> signupService.completeSignup("AH1")).isInstanceOf(RuntimeException.class);
+
+        storeCreationFails = false;
+        signupService.completeSignup("AH1");
+
+        assertThat(businessLines).hasSize(1);
+        assertThat(stores).hasSize(1);
+        assertThat(stores.get(0).getBusinessLineIds()).containsExactly("BL1");
+    }
+}
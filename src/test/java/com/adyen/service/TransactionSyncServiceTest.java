@@ -0,0 +1,117 @@
+package com.adyen.service;
+
+import com.adyen.cache.AccountHolderCache;
+import com.adyen.cache.AccountHolderIndex;
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.transfers.Amount;
+import com.adyen.model.transfers.Transaction;
+import com.adyen.store.TransactionStore;
+import com.adyen.util.TransactionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionSyncServiceTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.now(ZoneOffset.UTC).minusDays(1);
+
+    private TransactionSyncService transactionSyncService;
+    private TransactionRollupService transactionRollupService;
+    private AccountHolderCache accountHolderCache;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setTransactionsLedgerMaxBytes(1 << 20);
+        applicationProperty.setTransactionsLedgerIdleMs(60_000);
+        applicationProperty.setTransactionsStoreEnabled(false);
+        applicationProperty.setCacheTtlMs(60_000);
+        applicationProperty.setAccountHoldersCacheMaxBytes(1 << 20);
+        applicationProperty.setTransactionsCacheMaxBytes(1 << 20);
+
+        TransactionStore transactionStore = new TransactionStore();
+        transactionStore.setApplicationProperty(applicationProperty);
+        transactionRollupService = new TransactionRollupService();
+        accountHolderCache = new AccountHolderCache();
+        accountHolderCache.setApplicationProperty(applicationProperty);
+        accountHolderCache.setAccountHolderIndex(new AccountHolderIndex());
+        accountHolderCache.init();
+
+        transactionSyncService = new TransactionSyncService();
+        transactionSyncService.setApplicationProperty(applicationProperty);
+        transactionSyncService.setTransactionHandler(new TransactionHandler());
+        transactionSyncService.setTransactionStore(transactionStore);
+        transactionSyncService.setTransactionRollupService(transactionRollupService);
+        transactionSyncService.setAccountHolderCache(accountHolderCache);
+        transactionSyncService.init();
+    }
+
+    @Test
+    void ledgersAreFoundWithoutBeingCreated() {
+        transactionSyncService.ingest("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.BOOKED)));
+
+        assertThat(transactionSyncService.findLedger("AH1").isPresent()).isTrue();
+        assertThat(transactionSyncService.findLedger("AH2").isPresent()).isFalse();
+    }
+
+    @Test
+    void transactionsReceivedAgainUnchangedAreNotCountedTwice() {
+        transactionSyncService.ingest("AH1", List.of(
+                transaction("T1", 1000, Transaction.StatusEnum.BOOKED),
+                transaction("T2", -400, Transaction.StatusEnum.BOOKED)));
+        Map<String, Object> summary = transactionRollupService.getSummary("AH1");
+
+        // ie webhook, then the overlapping sync window
+        transactionSyncService.ingest("AH1", List.of(
+                transaction("T1", 1000, Transaction.StatusEnum.BOOKED),
+                transaction("T2", -400, Transaction.StatusEnum.BOOKED)));
+
+        assertThat(transactionRollupService.getSummary("AH1")).isEqualTo(summary);
+        assertThat(transactionSyncService.getLedger("AH1").size()).isEqualTo(2);
+        assertThat(transactionSyncService.getLedger("AH1").getTransactions(0)).hasSize(2);
+    }
+
+    @Test
+    void transactionsReceivedAgainWithChangesReplaceTheirTotals() {
+        transactionSyncService.ingest("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.PENDING)));
+        transactionSyncService.ingest("AH1", List.of(transaction("T1", 1500, Transaction.StatusEnum.BOOKED)));
+
+        transactionRollupService.add("AH2", "EUR", CREATED.toInstant().toEpochMilli(), 1500);
+
+        assertThat(transactionRollupService.getSummary("AH1")).isEqualTo(transactionRollupService.getSummary("AH2"));
+        assertThat(transactionSyncService.getLedger("AH1").getTransactions(0).get(0).getStatus()).isEqualTo("booked");
+    }
+
+    @Test
+    void ingestedTransactionsEvictTheCachedTransactions() {
+        accountHolderCache.getTransactions().put("AH1", List.of());
+
+        transactionSyncService.ingest("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.BOOKED)));
+
+        assertThat(accountHolderCache.getTransactions().get("AH1").isPresent()).isFalse();
+    }
+
+    @Test
+    void transactionsWithoutCreationDateAreSkipped() {
+        transactionSyncService.ingest("AH1", List.of(
+                transaction("T1", 1000, Transaction.StatusEnum.BOOKED).creationDate(null),
+                transaction("T2", 500, Transaction.StatusEnum.BOOKED)));
+
+        assertThat(transactionSyncService.getLedger("AH1").size()).isEqualTo(1);
+        assertThat(transactionSyncService.getLedger("AH1").getTransactions(0).get(0).getId()).isEqualTo("T2");
+    }
+
+    private static Transaction transaction(String id, long value, Transaction.StatusEnum status) {
+        return new Transaction()
+                .id(id)
+                .status(status)
+                .amount(new Amount().currency("EUR").value(value))
+                .creationDate(CREATED);
+    }
+}
@@ -0,0 +1,127 @@
+package com.adyen.service;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.store.WebhookIdempotencyStore;
+import com.adyen.store.WebhookJournal;
+import com.adyen.util.AfpEventHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ApplicationProperty applicationProperty;
+    private WebhookJournal webhookJournal;
+    private WebhookIdempotencyStore webhookIdempotencyStore;
+    private WebhookService webhookService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        applicationProperty = new ApplicationProperty();
+        applicationProperty.setWebhookJournalEnabled(true);
+        applicationProperty.setWebhookJournalPath(directory.toString());
+        applicationProperty.setWebhookJournalMaxBytes(1 << 20);
+        applicationProperty.setWebhookWorkers(2);
+        applicationProperty.setWebhookIdempotencyEnabled(true);
+        applicationProperty.setWebhookIdempotencyCapacity(1000);
+        applicationProperty.setWebhookIdempotencyLruSize(100);
+        start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stop();
+    }
+
+    @Test
+    void processedEventsAreCompletedAndNotRecoveredAfterARestart() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            assertThat(webhookService.submit(event("balancePlatform.transfer.created", i))).isTrue();
+        }
+        // unsupported: fails for good, not retried
+        assertThat(webhookService.submit(event("balancePlatform.unknown", 0))).isTrue();
+
+        awaitProcessed();
+        webhookJournal.saveCheckpoint();
+        assertThat(webhookService.getStats().get("processed")).isEqualTo(20L);
+        assertThat(webhookService.getStats().get("failed")).isEqualTo(1L);
+
+        stop();
+        start();
+
+        assertThat(webhookJournal.recover((offset, payload) -> { })).isZero();
+        assertThat(webhookJournal.getPendingCount()).isZero();
+    }
+
+    @Test
+    void redeliveredEventsAreNotProcessedAgain() throws Exception {
+        assertThat(webhookService.submit(event("balancePlatform.transfer.created", 1))).isTrue();
+        assertThat(webhookService.submit(event("balancePlatform.transfer.created", 1))).isFalse();
+
+        awaitProcessed();
+        assertThat(webhookService.getStats().get("processed")).isEqualTo(1L);
+    }
+
+    @Test
+    void recoveredEventsAreRememberedAsAccepted() throws Exception {
+        stop();
+        // journaled, its key lost in a crash
+        WebhookJournal journal = new WebhookJournal();
+        journal.setApplicationProperty(applicationProperty);
+        journal.init();
+        journal.append(event("balancePlatform.transfer.created", 1));
+        journal.shutdown();
+
+        start();
+        awaitProcessed();
+
+        assertThat(webhookService.getStats().get("processed")).isEqualTo(1L);
+        assertThat(webhookService.submit(event("balancePlatform.transfer.created", 1))).isFalse();
+    }
+
+    private void awaitProcessed() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (webhookJournal.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(webhookJournal.getPendingCount()).isZero();
+    }
+
+    private void start() throws Exception {
+        webhookJournal = new WebhookJournal();
+        webhookJournal.setApplicationProperty(applicationProperty);
+        webhookJournal.init();
+
+        webhookIdempotencyStore = new WebhookIdempotencyStore();
+        webhookIdempotencyStore.setApplicationProperty(applicationProperty);
+        webhookIdempotencyStore.setAfpEventHandler(new AfpEventHandler());
+        webhookIdempotencyStore.init();
+
+        webhookService = new WebhookService();
+        webhookService.setApplicationProperty(applicationProperty);
+        webhookService.setAfpEventHandler(new AfpEventHandler());
+        webhookService.setWebhookJournal(webhookJournal);
+        webhookService.setWebhookIdempotencyStore(webhookIdempotencyStore);
+        webhookService.init();
+    }
+
+    private void stop() throws Exception {
+        webhookService.shutdown();
+        webhookIdempotencyStore.shutdown();
+        webhookJournal.shutdown();
+    }
+
+    private static byte[] event(String type, int id) {
+        return ("{\"type\":\"" + type + "\",\"environment\":\"test\",\"data\":{\"id\":\"" + id + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
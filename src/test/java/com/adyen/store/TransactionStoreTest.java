@@ -0,0 +1,127 @@
+package com.adyen.store;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.model.TransactionItem;
+import com.adyen.model.transfers.Amount;
+import com.adyen.model.transfers.Transaction;
+import com.adyen.util.TransactionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionStoreTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.of(2024, 5, 31, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private TransactionStore transactionStore;
+
+    @BeforeEach
+    void setUp() {
+        transactionStore = newStore();
+    }
+
+    @Test
+    void transactionsAppendedAgainUnchangedAreNotWritten() throws Exception {
+        List<Transaction> transactions = List.of(
+                transaction("T1", 1000, Transaction.StatusEnum.BOOKED),
+                transaction("T2", -400, Transaction.StatusEnum.BOOKED));
+        transactionStore.append("AH1", transactions);
+        long size = Files.size(segment());
+
+        transactionStore.append("AH1", transactions);
+        // ie full sync after a restart, with an empty ledger
+        newStore().append("AH1", transactions);
+
+        assertThat(Files.size(segment())).isEqualTo(size);
+        assertThat(ids(query(null))).containsExactly("T1", "T2");
+    }
+
+    @Test
+    void changedTransactionsAreWrittenAndReadWithTheirLatestRecord() throws Exception {
+        transactionStore.append("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.PENDING)));
+        long size = Files.size(segment());
+
+        transactionStore.append("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.BOOKED)));
+        long changedSize = Files.size(segment());
+        transactionStore.append("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.BOOKED)));
+
+        assertThat(changedSize).isGreaterThan(size);
+        assertThat(Files.size(segment())).isEqualTo(changedSize);
+        assertThat(query("booked")).hasSize(1);
+        assertThat(query("pending")).isEmpty();
+    }
+
+    @Test
+    void appendsCompareWithTheLatestRecordOfTheSameBatch() throws Exception {
+        transactionStore.append("AH1", List.of(
+                transaction("T1", 1000, Transaction.StatusEnum.PENDING),
+                transaction("T1", 1000, Transaction.StatusEnum.BOOKED)));
+        long size = Files.size(segment());
+
+        transactionStore.append("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.BOOKED)));
+        assertThat(Files.size(segment())).isEqualTo(size);
+
+        transactionStore.append("AH1", List.of(transaction("T1", 1000, Transaction.StatusEnum.PENDING)));
+        assertThat(Files.size(segment())).isGreaterThan(size);
+        assertThat(query("pending")).hasSize(1);
+        assertThat(query("booked")).isEmpty();
+    }
+
+    @Test
+    void queriesOverAWideRangeReadTheStoredDaysOnly() {
+        transactionStore.append("AH1", List.of(
+                transaction("T1", 1000, Transaction.StatusEnum.BOOKED),
+                transaction("T2", -400, Transaction.StatusEnum.BOOKED).creationDate(CREATED.plusDays(40))));
+
+        List<TransactionItem> transactions = transactionStore.query("AH1", Instant.EPOCH,
+                Instant.parse("2100-01-01T00:00:00Z"), null, null);
+
+        assertThat(ids(transactions)).containsExactly("T1", "T2");
+        assertThat(ids(transactionStore.query("AH1", Instant.EPOCH, Instant.parse("2024-06-01T00:00:00Z"), null, null)))
+                .containsExactly("T1");
+    }
+
+    private TransactionStore newStore() {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setTransactionsStoreEnabled(true);
+        applicationProperty.setTransactionsStorePath(directory.toString());
+
+        TransactionStore store = new TransactionStore();
+        store.setApplicationProperty(applicationProperty);
+        store.setTransactionHandler(new TransactionHandler());
+        return store;
+    }
+
+    private Path segment() {
+        return directory.resolve("AH1").resolve("2024-05-31.seg");
+    }
+
+    private List<TransactionItem> query(String status) {
+        return transactionStore.query("AH1", Instant.parse("2024-05-31T00:00:00Z"), Instant.parse("2024-06-01T00:00:00Z"),
+                status, null);
+    }
+
+    private static List<String> ids(List<TransactionItem> transactions) {
+        return transactions.stream().map(TransactionItem::getId).toList();
+    }
+
+    private static Transaction transaction(String id, long value, Transaction.StatusEnum status) {
+        return new Transaction()
+                .id(id)
+                .status(status)
+                .amount(new Amount().currency("EUR").value(value))
+                .creationDate(CREATED);
+    }
+}
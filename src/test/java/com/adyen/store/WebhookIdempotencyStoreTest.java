@@ -0,0 +1,146 @@
+package com.adyen.store;
+
+import com.adyen.config.ApplicationProperty;
+import com.adyen.util.AfpEventHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookIdempotencyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private WebhookIdempotencyStore webhookIdempotencyStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        webhookIdempotencyStore = open(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookIdempotencyStore.shutdown();
+    }
+
+    @Test
+    void duplicatesAreDetected() {
+        long key = webhookIdempotencyStore.getKey(payload(1));
+
+        assertThat(webhookIdempotencyStore.add(key)).isTrue();
+        assertThat(webhookIdempotencyStore.add(key)).isFalse();
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(2)))).isTrue();
+        assertThat(webhookIdempotencyStore.getStats().get("duplicates")).isEqualTo(1L);
+    }
+
+    @Test
+    void duplicatesAreDetectedAfterAReopen() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(i)));
+        }
+        webhookIdempotencyStore.flush();
+        webhookIdempotencyStore.shutdown();
+
+        webhookIdempotencyStore = open(100);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(i)))).isFalse();
+        }
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(50)))).isTrue();
+        // not in the LRU after the reopen: found on disk
+        assertThat(webhookIdempotencyStore.getStats().get("diskLookups")).isEqualTo(50L);
+    }
+
+    @Test
+    void removedKeysAreAcceptedAgain() throws Exception {
+        long key = webhookIdempotencyStore.getKey(payload(1));
+        webhookIdempotencyStore.add(key);
+        webhookIdempotencyStore.remove(key);
+
+        assertThat(webhookIdempotencyStore.add(key)).isTrue();
+
+        webhookIdempotencyStore.remove(key);
+        webhookIdempotencyStore.shutdown();
+        webhookIdempotencyStore = open(100);
+        assertThat(webhookIdempotencyStore.add(key)).isTrue();
+    }
+
+    @Test
+    void previousTableIsKeptWhenTheCurrentOneIsFull() throws Exception {
+        webhookIdempotencyStore.shutdown();
+        webhookIdempotencyStore = open(10);
+
+        // 25 keys with a capacity of 10: tables 0, 1 and 2, only the last two are kept
+        for (int i = 0; i < 25; i++) {
+            webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(i)));
+        }
+        webhookIdempotencyStore.shutdown();
+        webhookIdempotencyStore = open(10);
+
+        assertThat(Files.exists(directory.resolve("event-keys.0"))).isFalse();
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(10)))).isFalse();
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(24)))).isFalse();
+        // forgotten with the first table
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(0)))).isTrue();
+    }
+
+    @Test
+    void eventsAreIdentifiedByTheirStableFields() {
+        byte[] event = ("{\"type\":\"balancePlatform.transfer.updated\",\"timestamp\":\"2024-05-31T10:00:00+02:00\","
+                + "\"data\":{\"id\":\"T1\",\"status\":\"booked\"}}").getBytes(StandardCharsets.UTF_8);
+        byte[] redelivery = ("{ \"data\": { \"status\": \"booked\", \"id\": \"T1\" },\n \"timestamp\": \"2024-05-31T10:00:00+02:00\","
+                + " \"type\": \"balancePlatform.transfer.updated\" }").getBytes(StandardCharsets.UTF_8);
+        byte[] update = ("{\"type\":\"balancePlatform.transfer.updated\",\"timestamp\":\"2024-05-31T10:05:00+02:00\","
+                + "\"data\":{\"id\":\"T1\",\"status\":\"booked\"}}").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(event))).isTrue();
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(redelivery))).isFalse();
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(update))).isTrue();
+    }
+
+    @Test
+    void tablesKeepTheirLayoutWhenTheCapacityChanges() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(i)));
+        }
+        webhookIdempotencyStore.shutdown();
+
+        webhookIdempotencyStore = open(10);
+        for (int i = 0; i < 50; i++) {
+            assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(i)))).isFalse();
+        }
+        // over the new capacity: rolled, the keys are kept in the previous table
+        assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(50)))).isTrue();
+        webhookIdempotencyStore.shutdown();
+
+        webhookIdempotencyStore = open(1000);
+        for (int i = 0; i <= 50; i++) {
+            assertThat(webhookIdempotencyStore.add(webhookIdempotencyStore.getKey(payload(i)))).isFalse();
+        }
+    }
+
+    private WebhookIdempotencyStore open(int capacity) throws Exception {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setWebhookIdempotencyEnabled(true);
+        applicationProperty.setWebhookJournalPath(directory.toString());
+        applicationProperty.setWebhookIdempotencyCapacity(capacity);
+        applicationProperty.setWebhookIdempotencyLruSize(10);
+
+        WebhookIdempotencyStore store = new WebhookIdempotencyStore();
+        store.setApplicationProperty(applicationProperty);
+        store.setAfpEventHandler(new AfpEventHandler());
+        store.init();
+        return store;
+    }
+
+    private static byte[] payload(int i) {
+        return ("{\"type\":\"balancePlatform.transfer.created\",\"data\":{\"id\":\"" + i + "\"}}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+package com.adyen.store;
+
+import com.adyen.config.ApplicationProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private WebhookJournal webhookJournal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        webhookJournal = open(1 << 20);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        webhookJournal.shutdown();
+    }
+
+    @Test
+    void completedRecordsAreNotRecoveredAfterARestart() throws Exception {
+        List<Long> offsets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            offsets.add(webhookJournal.append(payload(i)));
+        }
+        assertThat(webhookJournal.getPendingCount()).isEqualTo(10);
+
+        offsets.forEach(webhookJournal::complete);
+        assertThat(webhookJournal.getPendingCount()).isZero();
+
+        webhookJournal.shutdown();
+        webhookJournal = open(1 << 20);
+
+        assertThat(webhookJournal.recover((offset, payload) -> { })).isZero();
+        assertThat(webhookJournal.getPendingCount()).isZero();
+    }
+
+    @Test
+    void pendingRecordsAreRecoveredFromTheCheckpoint() throws Exception {
+        List<Long> offsets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            offsets.add(webhookJournal.append(payload(i)));
+        }
+        webhookJournal.complete(offsets.get(0));
+        webhookJournal.complete(offsets.get(1));
+        webhookJournal.complete(offsets.get(3));
+        webhookJournal.saveCheckpoint();
+
+        // crash: no shutdown, the checkpoint saved last is used
+        webhookJournal = open(1 << 20);
+        List<String> recovered = new ArrayList<>();
+        webhookJournal.recover((offset, payload) -> recovered.add(new String(payload, StandardCharsets.UTF_8)));
+
+        // from the first pending record: the records completed after it are processed again
+        assertThat(recovered).containsExactly("event-2", "event-3", "event-4");
+        assertThat(webhookJournal.getPendingCount()).isEqualTo(3);
+    }
+
+    @Test
+    void incompleteLastRecordIsDropped() throws Exception {
+        webhookJournal.append(payload(0));
+        webhookJournal.append(payload(1));
+        webhookJournal.shutdown();
+
+        Path journal = directory.resolve("events.journal");
+        long size = Files.size(journal);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        webhookJournal = open(1 << 20);
+        List<String> recovered = new ArrayList<>();
+        webhookJournal.recover((offset, payload) -> recovered.add(new String(payload, StandardCharsets.UTF_8)));
+
+        assertThat(recovered).containsExactly("event-0");
+        // appended after the last complete record
+        long offset = webhookJournal.append(payload(2));
+        webhookJournal.shutdown();
+        webhookJournal = open(1 << 20);
+        recovered.clear();
+        webhookJournal.recover((o, payload) -> recovered.add(new String(payload, StandardCharsets.UTF_8)));
+        assertThat(recovered).containsExactly("event-0", "event-2");
+        assertThat(offset).isLessThan(size);
+    }
+
+    @Test
+    void journalIsTruncatedOnceProcessedAndOverTheMaxSize() throws Exception {
+        webhookJournal.shutdown();
+        webhookJournal = open(64);
+
+        for (int i = 0; i < 10; i++) {
+            webhookJournal.complete(webhookJournal.append(payload(i)));
+        }
+        webhookJournal.saveCheckpoint();
+
+        assertThat(Files.size(directory.resolve("events.journal"))).isZero();
+        assertThat(webhookJournal.append(payload(10))).isZero();
+    }
+
+    @Test
+    void recordsAppendedAfterATruncationAreRecoveredAfterACrash() throws Exception {
+        webhookJournal.shutdown();
+        webhookJournal = open(64);
+
+        for (int i = 0; i < 10; i++) {
+            webhookJournal.complete(webhookJournal.append(payload(i)));
+        }
+        webhookJournal.saveCheckpoint();
+        webhookJournal.append(payload(10));
+        webhookJournal.append(payload(11));
+
+        // crash: no shutdown, no checkpoint saved after the appends
+        webhookJournal = open(64);
+        List<String> recovered = new ArrayList<>();
+        webhookJournal.recover((offset, payload) -> recovered.add(new String(payload, StandardCharsets.UTF_8)));
+
+        assertThat(recovered).containsExactly("event-10", "event-11");
+    }
+
+    @Test
+    void recordsAppendedAfterATruncationAreRecoveredWhenTheCheckpointCannotBeSaved() throws Exception {
+        webhookJournal.shutdown();
+        webhookJournal = open(64);
+
+        for (int i = 0; i < 5; i++) {
+            webhookJournal.complete(webhookJournal.append(payload(i)));
+        }
+        long pending = webhookJournal.append(payload(5));
+        // checkpoint at the pending record
+        webhookJournal.saveCheckpoint();
+        webhookJournal.complete(pending);
+
+        // truncated, but the checkpoint file cannot be replaced
+        Files.createDirectories(directory.resolve("checkpoint.tmp").resolve("blocked"));
+        webhookJournal.saveCheckpoint();
+        List<String> appended = new ArrayList<>();
+        for (int i = 10; i < 20; i++) {
+            webhookJournal.append(payload(i));
+            appended.add("event-" + i);
+        }
+
+        // crash
+        webhookJournal = open(64);
+        List<String> recovered = new ArrayList<>();
+        webhookJournal.recover((offset, payload) -> recovered.add(new String(payload, StandardCharsets.UTF_8)));
+
+        assertThat(recovered).isEqualTo(appended);
+    }
+
+    private WebhookJournal open(long maxBytes) throws Exception {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setWebhookJournalEnabled(true);
+        applicationProperty.setWebhookJournalPath(directory.toString());
+        applicationProperty.setWebhookJournalMaxBytes(maxBytes);
+
+        WebhookJournal journal = new WebhookJournal();
+        journal.setApplicationProperty(applicationProperty);
+        journal.init();
+        return journal;
+    }
+
+    private static byte[] payload(int i) {
+        return ("event-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
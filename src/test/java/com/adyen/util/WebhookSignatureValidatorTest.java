@@ -0,0 +1,72 @@
+package com.adyen.util;
+
+import com.adyen.config.ApplicationProperty;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebhookSignatureValidatorTest {
+
+    private static final String KEY = "44782DEF547AAA06C910C43932B1EB0C71FC68D9D0C057550C48EC2ACF6BA056";
+    private static final String PREVIOUS_KEY = "0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF";
+
+    private final byte[] payload = "{\"type\":\"balancePlatform.accountHolder.updated\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void signaturesMadeWithAnyConfiguredKeyAreValid() throws Exception {
+        WebhookSignatureValidator validator = validator(PREVIOUS_KEY + ", " + KEY);
+
+        assertThat(validator.isValid(payload, sign(KEY))).isTrue();
+        assertThat(validator.isValid(payload, sign(PREVIOUS_KEY))).isTrue();
+        assertThat(validator.isValid(payload, sign("00" + KEY.substring(2)))).isFalse();
+        assertThat(validator.isValid(payload, "not base64!")).isFalse();
+        assertThat(validator.isValid(payload, null)).isFalse();
+    }
+
+    @Test
+    void malformedKeysFailAtStartup() {
+        assertThatThrownBy(() -> validator("not-hex")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void withoutKeysEverySignatureIsRejected() throws Exception {
+        WebhookSignatureValidator validator = validator("");
+
+        assertThat(validator.hasKeys()).isFalse();
+        assertThat(validator.isValid(payload, sign(KEY))).isFalse();
+    }
+
+    @Test
+    void keysChangedToAnInvalidValueRejectEverySignature() throws Exception {
+        WebhookSignatureValidator validator = validator(KEY);
+        validator.getApplicationProperty().setHmacKey("not-hex");
+
+        // no exception per request: the invalid value is parsed once
+        assertThat(validator.isValid(payload, sign(KEY))).isFalse();
+        assertThat(validator.hasKeys()).isFalse();
+    }
+
+    private static WebhookSignatureValidator validator(String hmacKey) {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        applicationProperty.setHmacKey(hmacKey);
+        applicationProperty.setWebhookHmacValidationEnabled(true);
+
+        WebhookSignatureValidator validator = new WebhookSignatureValidator();
+        validator.setApplicationProperty(applicationProperty);
+        validator.init();
+        return validator;
+    }
+
+    private String sign(String key) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(HexFormat.of().parseHex(key), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(payload));
+    }
+}